@@ -0,0 +1,467 @@
+package org.json;
+
+/*
+Copyright (c) 2002 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sets the properties of a bean class from the members of a JSON object. A
+ * key is bound to the public setter that JSONObject would name the same way
+ * as a getter, so <code>setName</code> receives <code>"name"</code>, or else
+ * to a public field of the same name. Keys without a property are ignored.
+ * If the setter is overloaded, the one that takes the type returned by the
+ * property's getter is used; if there is none, binding the key is an error.
+ * <p>
+ * The binder for each class is made once and kept, in the same way as
+ * {@link BeanProperties}.
+ *
+ * @author JSON.org
+ * @version 2016-08-04
+ */
+final class BeanBinder {
+
+    /**
+     * The binders made so far, by class.
+     */
+    private static final ClassCache<BeanBinder> CACHE =
+            new ClassCache<BeanBinder>() {
+        @Override
+        BeanBinder make(Class<?> klass) {
+            return new BeanBinder(klass);
+        }
+    };
+
+    /**
+     * A property that can be set: a setter, or failing that a field.
+     */
+    private static final class Property {
+        final Method setter;
+        final Field field;
+        final Class<?> type;
+        final Type genericType;
+
+        Property(Method setter) {
+            this.setter = setter;
+            this.field = null;
+            this.type = setter.getParameterTypes()[0];
+            this.genericType = setter.getGenericParameterTypes()[0];
+        }
+
+        Property(Field field) {
+            this.setter = null;
+            this.field = field;
+            this.type = field.getType();
+            this.genericType = field.getGenericType();
+        }
+
+        /**
+         * A property with overloaded setters, none of which is chosen.
+         */
+        Property() {
+            this.setter = null;
+            this.field = null;
+            this.type = Object.class;
+            this.genericType = Object.class;
+        }
+
+        void set(Object bean, Object value) throws JSONException {
+            try {
+                if (this.setter != null) {
+                    this.setter.invoke(bean, value);
+                } else {
+                    this.field.set(bean, value);
+                }
+            } catch (Exception exception) {
+                throw new JSONException(exception);
+            }
+        }
+    }
+
+    /**
+     * The class that is bound.
+     */
+    private final Class<?> klass;
+
+    /**
+     * The constructor that takes no arguments, or null if there is none.
+     */
+    private final Constructor<?> constructor;
+
+    /**
+     * The properties, by key.
+     */
+    private final Map<String, Property> properties;
+
+    /**
+     * Find the properties of a class.
+     *
+     * @param klass
+     *            A bean class.
+     */
+    private BeanBinder(Class<?> klass) {
+        this.klass = klass;
+        Constructor<?> constructor;
+        try {
+            constructor = klass.getDeclaredConstructor();
+            if (!Modifier.isPublic(constructor.getModifiers())
+                    || !Modifier.isPublic(klass.getModifiers())) {
+                constructor.setAccessible(true);
+            }
+        } catch (Exception exception) {
+            constructor = null;
+        }
+        this.constructor = constructor;
+        this.properties = new HashMap<String, Property>();
+        Map<String, List<Method>> setters = new HashMap<String, List<Method>>();
+        for (Method method : klass.getMethods()) {
+            String name = method.getName();
+            if (name.startsWith("set") && !method.isBridge()
+                    && !Modifier.isStatic(method.getModifiers())
+                    && method.getParameterTypes().length == 1) {
+                String key = BeanProperties.keyOf("get" + name.substring(3));
+                if (key != null) {
+                    List<Method> overloads = setters.get(key);
+                    if (overloads == null) {
+                        overloads = new ArrayList<Method>(1);
+                        setters.put(key, overloads);
+                    }
+                    overloads.add(method);
+                }
+            }
+        }
+        for (Map.Entry<String, List<Method>> entry : setters.entrySet()) {
+            Method setter = choose(klass, entry.getValue());
+            this.properties.put(entry.getKey(), setter == null ? new Property()
+                    : new Property(setter));
+        }
+        for (Field field : klass.getFields()) {
+            int modifiers = field.getModifiers();
+            if (!Modifier.isStatic(modifiers) && !Modifier.isFinal(modifiers)
+                    && !this.properties.containsKey(field.getName())) {
+                this.properties.put(field.getName(), new Property(field));
+            }
+        }
+    }
+
+    /**
+     * Choose among the setters of a property. The order of
+     * <code>getMethods</code> is unspecified, so when a setter is overloaded
+     * the one whose parameter has the type of the property's getter is
+     * chosen, and if there is no such getter none is.
+     *
+     * @param klass
+     *            The bean class.
+     * @param setters
+     *            The setters of the property, all with the same name.
+     * @return The setter, or null if the property has no setter that can be
+     *         chosen.
+     */
+    private static Method choose(Class<?> klass, List<Method> setters) {
+        if (setters.size() == 1) {
+            return setters.get(0);
+        }
+        String name = setters.get(0).getName().substring(3);
+        Class<?> type = null;
+        for (String prefix : new String[] { "get", "is" }) {
+            try {
+                type = klass.getMethod(prefix + name).getReturnType();
+                break;
+            } catch (NoSuchMethodException ignore) {
+            }
+        }
+        for (Method setter : setters) {
+            if (setter.getParameterTypes()[0] == type) {
+                return setter;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get the binder of a class, making it if this is the first time it is
+     * wanted.
+     *
+     * @param klass
+     *            A bean class.
+     * @return The binder of the class.
+     */
+    static BeanBinder of(Class<?> klass) {
+        return CACHE.get(klass);
+    }
+
+    /**
+     * Make a new bean.
+     *
+     * @return A bean.
+     * @throws JSONException
+     *             If the class has no constructor without arguments, or the
+     *             constructor fails.
+     */
+    private Object newInstance() throws JSONException {
+        if (this.constructor == null) {
+            throw new JSONException("Class " + this.klass.getName()
+                    + " has no constructor without arguments.");
+        }
+        try {
+            return this.constructor.newInstance();
+        } catch (Exception exception) {
+            throw new JSONException(exception);
+        }
+    }
+
+    /**
+     * Make a bean from a JSONObject.
+     *
+     * @param jo
+     *            A JSONObject.
+     * @return A bean.
+     * @throws JSONException
+     *             If a value cannot be converted to its property's type.
+     */
+    Object bind(JSONObject jo) throws JSONException {
+        Object bean = this.newInstance();
+        for (Map.Entry<String, Property> entry : this.properties.entrySet()) {
+            String key = entry.getKey();
+            Object value = jo.opt(key);
+            if (value != null) {
+                this.set(bean, key, entry.getValue(), value);
+            }
+        }
+        return bean;
+    }
+
+    /**
+     * Make a bean from the object that a reader is at the start of. The
+     * reader is left at the end of the object. Objects bound to bean
+     * properties are read in the same way, without building JSONObjects.
+     *
+     * @param reader
+     *            A JSONReader whose current event is START_OBJECT.
+     * @return A bean.
+     * @throws JSONException
+     *             If there is a syntax error, or a value cannot be converted
+     *             to its property's type.
+     */
+    Object bind(JSONReader reader) throws JSONException {
+        Object bean = this.newInstance();
+        for (JSONReader.Event e = reader.next();
+                e != JSONReader.Event.END_OBJECT; e = reader.next()) {
+            String key = reader.getString();
+            Property property = this.properties.get(key);
+            if (property == null) {
+                reader.skipValue();
+            } else if (reader.next() == JSONReader.Event.START_OBJECT
+                    && isBean(property.type)) {
+                property.set(bean, of(property.type).bind(reader));
+            } else {
+                this.set(bean, key, property, reader.readValue());
+            }
+        }
+        return bean;
+    }
+
+    /**
+     * Set a property, converting the value to its type. A null value leaves
+     * a primitive property unchanged.
+     */
+    private void set(Object bean, String key, Property property, Object value)
+            throws JSONException {
+        if (property.setter == null && property.field == null) {
+            throw new JSONException("JSONObject[" + JSONObject.quote(key)
+                    + "] has more than one setter in " + this.klass.getName()
+                    + ".");
+        }
+        if (JSONObject.NULL.equals(value)) {
+            if (!property.type.isPrimitive()) {
+                property.set(bean, null);
+            }
+        } else {
+            property.set(bean, convert(key, value, property.type,
+                    property.genericType));
+        }
+    }
+
+    /**
+     * Test whether a class is bound as a bean rather than as a value.
+     *
+     * @param type
+     *            A class.
+     * @return true if objects of the class are made by a binder.
+     */
+    static boolean isBean(Class<?> type) {
+        return !type.isPrimitive() && !type.isArray() && !type.isInterface()
+                && !type.isEnum() && !Modifier.isAbstract(type.getModifiers())
+                && type != JSONObject.class && type != JSONArray.class
+                && !JSONObject.isSystemClass(type);
+    }
+
+    /**
+     * Convert a value to a type.
+     *
+     * @param key
+     *            The key or index of the value, for error messages.
+     * @param value
+     *            A value from a JSONObject or JSONArray, not null.
+     * @param type
+     *            The type wanted.
+     * @param genericType
+     *            The same type, with any type arguments.
+     * @return The converted value.
+     * @throws JSONException
+     *             If the value cannot be converted.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static Object convert(Object key, Object value, Class<?> type,
+            Type genericType) throws JSONException {
+        try {
+            if (type == int.class || type == Integer.class) {
+                return value instanceof Number ? ((Number) value).intValue()
+                        : Integer.parseInt((String) value);
+            }
+            if (type == long.class || type == Long.class) {
+                return value instanceof Number ? ((Number) value).longValue()
+                        : Long.parseLong((String) value);
+            }
+            if (type == double.class || type == Double.class) {
+                return value instanceof Number ? ((Number) value).doubleValue()
+                        : Double.parseDouble((String) value);
+            }
+            if (type == float.class || type == Float.class) {
+                return value instanceof Number ? ((Number) value).floatValue()
+                        : Float.parseFloat((String) value);
+            }
+            if (type == short.class || type == Short.class) {
+                return value instanceof Number ? ((Number) value).shortValue()
+                        : Short.parseShort((String) value);
+            }
+            if (type == byte.class || type == Byte.class) {
+                return value instanceof Number ? ((Number) value).byteValue()
+                        : Byte.parseByte((String) value);
+            }
+            if (type == boolean.class || type == Boolean.class) {
+                if (value instanceof Boolean) {
+                    return value;
+                }
+                if ("true".equalsIgnoreCase((String) value)) {
+                    return Boolean.TRUE;
+                }
+                if ("false".equalsIgnoreCase((String) value)) {
+                    return Boolean.FALSE;
+                }
+            } else if (type == char.class || type == Character.class) {
+                if (((String) value).length() == 1) {
+                    return ((String) value).charAt(0);
+                }
+            } else if (type == String.class) {
+                if (value instanceof String || value instanceof Number
+                        || value instanceof Boolean) {
+                    return value.toString();
+                }
+            } else if (type == BigDecimal.class) {
+                return new BigDecimal(value.toString());
+            } else if (type == BigInteger.class) {
+                return new BigInteger(value.toString());
+            } else if (type.isEnum()) {
+                return Enum.valueOf((Class<? extends Enum>) type, (String) value);
+            } else if (value instanceof JSONObject) {
+                if (type.isAssignableFrom(Map.class)) {
+                    return ((JSONObject) value).toMap();
+                }
+                if (isBean(type)) {
+                    return of(type).bind((JSONObject) value);
+                }
+            } else if (value instanceof JSONArray) {
+                JSONArray ja = (JSONArray) value;
+                if (type.isArray()) {
+                    Class<?> component = type.getComponentType();
+                    Object array = Array.newInstance(component, ja.length());
+                    for (int i = 0; i < ja.length(); i += 1) {
+                        Object element = ja.opt(i);
+                        if (!JSONObject.NULL.equals(element)) {
+                            Array.set(array, i, convert(i, element, component,
+                                    component));
+                        }
+                    }
+                    return array;
+                }
+                Collection<Object> collection = null;
+                if (type.isAssignableFrom(ArrayList.class)) {
+                    collection = new ArrayList<Object>(ja.length());
+                } else if (type.isAssignableFrom(LinkedHashSet.class)) {
+                    collection = new LinkedHashSet<Object>();
+                }
+                if (collection != null) {
+                    Type elementType = Object.class;
+                    if (genericType instanceof ParameterizedType) {
+                        elementType = ((ParameterizedType) genericType)
+                                .getActualTypeArguments()[0];
+                    }
+                    Class<?> elementClass = elementType instanceof Class
+                            ? (Class<?>) elementType : elementType instanceof ParameterizedType
+                            ? (Class<?>) ((ParameterizedType) elementType).getRawType()
+                            : Object.class;
+                    for (int i = 0; i < ja.length(); i += 1) {
+                        Object element = ja.opt(i);
+                        collection.add(JSONObject.NULL.equals(element) ? null
+                                : convert(i, element, elementClass, elementType));
+                    }
+                    return collection;
+                }
+            }
+            if (type == Object.class) {
+                if (value instanceof JSONObject) {
+                    return ((JSONObject) value).toMap();
+                }
+                if (value instanceof JSONArray) {
+                    return ((JSONArray) value).toList();
+                }
+                return value;
+            }
+            if (type.isInstance(value)) {
+                return value;
+            }
+        } catch (JSONException exception) {
+            throw exception;
+        } catch (Exception ignore) {
+        }
+        throw new JSONException("JSON value at " + (key instanceof String
+                ? JSONObject.quote((String) key) : key)
+                + " cannot be converted to " + type.getName() + ".");
+    }
+}
@@ -0,0 +1,149 @@
+package org.json;
+
+/*
+Copyright (c) 2002 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * The getters of a bean class and the keys that JSONObject gives their
+ * values. Finding them takes a scan of the class's methods and some string
+ * work for each getter, so the result is kept for each class and reused by
+ * every later conversion of a bean of that class.
+ * <p>
+ * The cache is a {@link ClassCache}, so lookups take no lock, and a class
+ * from a class loader other than this package's is not kept loaded by its
+ * entry.
+ *
+ * @author JSON.org
+ * @version 2016-08-04
+ */
+final class BeanProperties {
+
+    /**
+     * The properties found so far, by class.
+     */
+    private static final ClassCache<BeanProperties> CACHE =
+            new ClassCache<BeanProperties>() {
+        @Override
+        BeanProperties make(Class<?> klass) {
+            return new BeanProperties(klass);
+        }
+    };
+
+    /**
+     * The keys, in the order of the getters.
+     */
+    final String[] keys;
+
+    /**
+     * The public getters, taking no arguments.
+     */
+    final Method[] getters;
+
+    /**
+     * True if two getters have the same key, as getFoo and isFoo do.
+     */
+    final boolean duplicates;
+
+    /**
+     * Find the properties of a class.
+     *
+     * @param klass
+     *            A bean class.
+     */
+    private BeanProperties(Class<?> klass) {
+
+// If klass is a System class then set includeSuperClass to false.
+
+        boolean includeSuperClass = klass.getClassLoader() != null;
+
+        Method[] methods = includeSuperClass ? klass.getMethods() : klass
+                .getDeclaredMethods();
+        List<String> keys = new ArrayList<String>();
+        List<Method> getters = new ArrayList<Method>();
+        for (Method method : methods) {
+            if (Modifier.isPublic(method.getModifiers())
+                    && method.getParameterTypes().length == 0) {
+                String key = keyOf(method.getName());
+                if (key != null) {
+                    keys.add(key);
+                    getters.add(method);
+                }
+            }
+        }
+        this.duplicates = new HashSet<String>(keys).size() < keys.size();
+        this.keys = keys.toArray(new String[keys.size()]);
+        this.getters = getters.toArray(new Method[getters.size()]);
+    }
+
+    /**
+     * Get the properties of a class, finding them if this is the first time
+     * they are wanted.
+     *
+     * @param klass
+     *            A bean class.
+     * @return The properties of the class.
+     */
+    static BeanProperties of(Class<?> klass) {
+        return CACHE.get(klass);
+    }
+
+    /**
+     * Make the key for a getter. The key is formed by removing the
+     * <code>"get"</code> or <code>"is"</code> prefix. If the second remaining
+     * character is not upper case, then the first character is converted to
+     * lower case.
+     *
+     * @param name
+     *            The name of a method.
+     * @return The key, or null if the method is not a getter.
+     */
+    static String keyOf(String name) {
+        String key;
+        if (name.startsWith("get")) {
+            if ("getClass".equals(name) || "getDeclaringClass".equals(name)) {
+                return null;
+            }
+            key = name.substring(3);
+        } else if (name.startsWith("is")) {
+            key = name.substring(2);
+        } else {
+            return null;
+        }
+        if (key.length() == 0 || !Character.isUpperCase(key.charAt(0))) {
+            return null;
+        }
+        if (key.length() == 1) {
+            key = key.toLowerCase();
+        } else if (!Character.isUpperCase(key.charAt(1))) {
+            key = key.substring(0, 1).toLowerCase() + key.substring(1);
+        }
+        return key;
+    }
+}
@@ -0,0 +1,142 @@
+package org.json;
+
+/*
+Copyright (c) 2002 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A cache of a bounded number of entries that any number of threads may use
+ * at once. Lookups take no lock, so a cache of a few hot entries does not
+ * make its readers wait for one another.
+ * <p>
+ * When the cache is full, adding an entry first drops one that has not been
+ * looked up lately. Each entry has a bit that a lookup sets; the entries are
+ * visited in turn, as by the hand of a clock, and an entry whose bit is set
+ * is given a second chance by clearing it, while the first entry found
+ * without it is dropped. So the entries that are looked up over and over
+ * stay in the cache however many others come and go.
+ *
+ * @author JSON.org
+ * @version 2016-08-04
+ */
+final class BoundedCache<K, V> {
+
+    /**
+     * A value, and whether it has been looked up since the clock hand last
+     * passed it.
+     */
+    private static final class Entry<V> {
+        final V value;
+        volatile boolean used;
+
+        Entry(V value) {
+            this.value = value;
+        }
+    }
+
+    /**
+     * The entries.
+     */
+    private final ConcurrentHashMap<K, Entry<V>> map;
+
+    /**
+     * The most entries that the cache holds, give or take the entries being
+     * added by other threads.
+     */
+    private final int capacity;
+
+    /**
+     * The clock hand: where the search for an entry to drop goes on from.
+     * Guarded by this cache.
+     */
+    private Iterator<Entry<V>> hand;
+
+    /**
+     * Construct an empty cache.
+     *
+     * @param capacity
+     *            The most entries to keep.
+     */
+    BoundedCache(int capacity) {
+        this.map = new ConcurrentHashMap<K, Entry<V>>(capacity * 4 / 3 + 1);
+        this.capacity = capacity;
+    }
+
+    /**
+     * Get the value for a key.
+     *
+     * @param key
+     *            The key, not null.
+     * @return The value, or null if the key is not in the cache.
+     */
+    V get(K key) {
+        Entry<V> entry = this.map.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (!entry.used) {
+            entry.used = true;
+        }
+        return entry.value;
+    }
+
+    /**
+     * Add an entry, dropping another if the cache is full.
+     *
+     * @param key
+     *            The key, not null.
+     * @param value
+     *            The value, not null.
+     */
+    void put(K key, V value) {
+        if (this.map.size() >= this.capacity) {
+            this.evict();
+        }
+        this.map.put(key, new Entry<V>(value));
+    }
+
+    /**
+     * Drop the first entry that the clock hand finds not looked up since it
+     * last passed, clearing the bits of the ones it passes. After a full
+     * turn every bit is clear, so the search ends within two turns.
+     */
+    private synchronized void evict() {
+        for (int steps = (this.map.size() << 1) + 1; steps > 0; steps -= 1) {
+            if (this.hand == null || !this.hand.hasNext()) {
+                this.hand = this.map.values().iterator();
+                if (!this.hand.hasNext()) {
+                    return;
+                }
+            }
+            Entry<V> entry = this.hand.next();
+            if (!entry.used || steps == 1) {
+                this.hand.remove();
+                return;
+            }
+            entry.used = false;
+        }
+    }
+}
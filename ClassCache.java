@@ -0,0 +1,165 @@
+package org.json;
+
+/*
+Copyright (c) 2002 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A cache of something made for each class, such as the getters of a bean
+ * class, that any number of threads may use at once. Lookups take no lock.
+ * <p>
+ * A class loaded by the loader of this package, or by one of its parents,
+ * cannot be unloaded before this package is, so its entry is held strongly
+ * and is never dropped. An entry for a class from any other loader refers to
+ * its class, so it is held weakly, with its class held weakly too: caching
+ * it never keeps the class or its loader loaded, at the cost of making the
+ * entry again after the garbage collector has cleared it.
+ *
+ * @author JSON.org
+ * @version 2016-08-04
+ */
+abstract class ClassCache<V> {
+
+    /**
+     * The class loader of this package.
+     */
+    private static final ClassLoader LOADER = ClassCache.class.getClassLoader();
+
+    /**
+     * A weak reference to a class that is equal to any other reference to
+     * the same class, so that it can be a key of a map.
+     */
+    private static final class Key extends WeakReference<Class<?>> {
+        private final int hash;
+
+        Key(Class<?> klass, ReferenceQueue<Class<?>> queue) {
+            super(klass, queue);
+            this.hash = System.identityHashCode(klass);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Class<?> klass = this.get();
+            return klass != null && klass == ((Key) other).get();
+        }
+    }
+
+    /**
+     * The entries for the classes of this package's loader and its parents.
+     */
+    private final ConcurrentHashMap<Class<?>, V> strong =
+            new ConcurrentHashMap<Class<?>, V>();
+
+    /**
+     * The entries for the classes of other loaders.
+     */
+    private final ConcurrentHashMap<Key, Reference<V>> weak =
+            new ConcurrentHashMap<Key, Reference<V>>();
+
+    /**
+     * The keys of weak whose classes have been collected.
+     */
+    private final ReferenceQueue<Class<?>> queue = new ReferenceQueue<Class<?>>();
+
+    /**
+     * Make the entry for a class.
+     *
+     * @param klass
+     *            A class.
+     * @return The entry, not null.
+     */
+    abstract V make(Class<?> klass);
+
+    /**
+     * Get the entry for a class, making it if this is the first time it is
+     * wanted. Two threads that ask at once may both make it; one of the two
+     * is kept.
+     *
+     * @param klass
+     *            A class.
+     * @return The entry.
+     */
+    final V get(Class<?> klass) {
+        V value = this.strong.get(klass);
+        if (value != null) {
+            return value;
+        }
+        if (isLocal(klass.getClassLoader())) {
+            value = this.make(klass);
+            V previous = this.strong.putIfAbsent(klass, value);
+            return previous == null ? value : previous;
+        }
+        Reference<V> reference = this.weak.get(new Key(klass, null));
+        value = reference == null ? null : reference.get();
+        if (value == null) {
+            for (Reference<?> cleared = this.queue.poll(); cleared != null;
+                    cleared = this.queue.poll()) {
+                this.weak.remove(cleared);
+            }
+            value = this.make(klass);
+            this.weak.put(new Key(klass, this.queue), new WeakReference<V>(value));
+        }
+        return value;
+    }
+
+    /**
+     * Tell if a class loader is the loader of this package or one of its
+     * parents.
+     *
+     * @param loader
+     *            A class loader, or null for the bootstrap loader.
+     * @return true if classes of the loader outlive this package.
+     */
+    private static boolean isLocal(ClassLoader loader) {
+        if (loader == null) {
+            return true;
+        }
+        try {
+            for (ClassLoader local = LOADER; local != null;
+                    local = local.getParent()) {
+                if (local == loader) {
+                    return true;
+                }
+            }
+        } catch (SecurityException exception) {
+            return false;
+        }
+        return false;
+    }
+}
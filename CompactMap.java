@@ -0,0 +1,516 @@
+package org.json;
+
+/*
+Copyright (c) 2002 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * The map in which a JSONObject keeps its properties. Most objects have only
+ * a few keys, so the keys and values are kept side by side in one array and
+ * found by a linear scan. Once the object grows past a handful of keys the
+ * entries are moved into a HashMap.
+ * <p>
+ * An ordered map instead keeps all of its entries in the array, in the order
+ * in which they were added, and past the same point finds them through an
+ * open addressing hash index of array positions. Removing an entry from such
+ * a map leaves a marker in its place, so that the entries after it do not
+ * move and the index stays valid; the markers are squeezed out once there
+ * are more than half as many of them as entries.
+ *
+ * @author JSON.org
+ * @version 2016-08-04
+ */
+final class CompactMap extends AbstractMap<String, Object> {
+
+    /**
+     * The largest number of entries kept in the table.
+     */
+    static final int THRESHOLD = 8;
+
+    /**
+     * The key that marks the place of a removed entry in an indexed table.
+     */
+    private static final Object REMOVED = new Object();
+
+    /**
+     * True if the entries are to be kept in the order they were added.
+     */
+    private final boolean ordered;
+
+    /**
+     * The entries, as key and value in alternate elements. Null until the
+     * first entry is added.
+     */
+    private Object[] table;
+
+    /**
+     * The number of entries in the table.
+     */
+    private int size;
+
+    /**
+     * The number of places used in the table: the entries and the removed
+     * entries. The same as size unless there is an index.
+     */
+    private int used;
+
+    /**
+     * For an ordered map with more than THRESHOLD entries, a hash table of
+     * entry numbers plus one, with zero marking an empty slot. Otherwise
+     * null.
+     */
+    private int[] index;
+
+    /**
+     * The entries once there are too many for the table, otherwise null.
+     */
+    private Map<String, Object> hashMap;
+
+    /**
+     * Counts the changes to the table, so that iterators can fail fast.
+     */
+    private int modCount;
+
+    /**
+     * The view of the entries, made when first asked for.
+     */
+    private Set<Entry<String, Object>> entrySet;
+
+    /**
+     * Construct an empty map that does not keep the order of its entries.
+     */
+    CompactMap() {
+        this(false);
+    }
+
+    /**
+     * Construct an empty map.
+     *
+     * @param ordered
+     *            True if the entries are to be kept in the order they were
+     *            added.
+     */
+    CompactMap(boolean ordered) {
+        this.ordered = ordered;
+    }
+
+    /**
+     * Tell if this map keeps the order of its entries.
+     *
+     * @return true if the map is ordered.
+     */
+    boolean isOrdered() {
+        return this.ordered;
+    }
+
+    /**
+     * Find a key in the table.
+     *
+     * @param key
+     *            A key.
+     * @return The index of the key in the table, or -1 if it is not there.
+     */
+    private int indexOf(Object key) {
+        final Object[] table = this.table;
+        final int end = this.size << 1;
+        if (this.index != null) {
+            final int[] index = this.index;
+            final int mask = index.length - 1;
+            final int hash = key == null ? 0 : key.hashCode();
+            for (int slot = spread(hash) & mask;; slot = (slot + 1) & mask) {
+                int entry = index[slot];
+                if (entry == 0) {
+                    return -1;
+                }
+                int i = (entry - 1) << 1;
+                Object k = table[i];
+                if (k == key || (k != null && k.hashCode() == hash && k.equals(key))) {
+                    return i;
+                }
+            }
+        }
+        if (key == null) {
+            for (int i = 0; i < end; i += 2) {
+                if (table[i] == null) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        final int hash = key.hashCode();
+        for (int i = 0; i < end; i += 2) {
+            Object k = table[i];
+            if (k == key || (k != null && k.hashCode() == hash && key.equals(k))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int size() {
+        return this.hashMap != null ? this.hashMap.size() : this.size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.size() == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        if (this.hashMap != null) {
+            return this.hashMap.containsKey(key);
+        }
+        return this.indexOf(key) >= 0;
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (this.hashMap != null) {
+            return this.hashMap.get(key);
+        }
+        int i = this.indexOf(key);
+        return i >= 0 ? this.table[i + 1] : null;
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        if (this.hashMap != null) {
+            return this.hashMap.put(key, value);
+        }
+        int i = this.indexOf(key);
+        if (i >= 0) {
+            Object old = this.table[i + 1];
+            this.table[i + 1] = value;
+            return old;
+        }
+        if (this.size == THRESHOLD && !this.ordered) {
+            this.promote();
+            return this.hashMap.put(key, value);
+        }
+        i = this.used << 1;
+        if (this.table == null) {
+            this.table = new Object[4];
+        } else if (i == this.table.length) {
+            Object[] table = new Object[i << 1];
+            System.arraycopy(this.table, 0, table, 0, i);
+            this.table = table;
+        }
+        this.table[i] = key;
+        this.table[i + 1] = value;
+        this.size += 1;
+        this.used += 1;
+        this.modCount += 1;
+        if (this.size > THRESHOLD) {
+            if (this.index == null || this.used << 1 > this.index.length) {
+                this.reindex();
+            } else {
+                this.addToIndex(this.index, i);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Object remove(Object key) {
+        if (this.hashMap != null) {
+            return this.hashMap.remove(key);
+        }
+        int i = this.indexOf(key);
+        if (i < 0) {
+            return null;
+        }
+        Object old = this.table[i + 1];
+        this.removeAt(i);
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        this.hashMap = null;
+        this.index = null;
+        this.table = null;
+        this.size = 0;
+        this.used = 0;
+        this.modCount += 1;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        if (this.entrySet == null) {
+            this.entrySet = new EntrySet();
+        }
+        return this.entrySet;
+    }
+
+    /**
+     * Remove the entry at an index of the table, keeping the others in
+     * order. In an indexed table the entry is marked as removed, and the
+     * table is compacted when too many are.
+     *
+     * @return The index in the table of the entry that followed the removed
+     *         one.
+     */
+    private int removeAt(int i) {
+        this.size -= 1;
+        this.modCount += 1;
+        if (this.index == null) {
+            int end = this.used << 1;
+            System.arraycopy(this.table, i + 2, this.table, i, end - i - 2);
+            this.table[end - 2] = null;
+            this.table[end - 1] = null;
+            this.used -= 1;
+            return i;
+        }
+        this.table[i] = REMOVED;
+        this.table[i + 1] = null;
+        if (this.size > THRESHOLD && this.used - this.size <= this.size >> 1) {
+            return i + 2;
+        }
+        int next = 0;
+        for (int j = 0; j < i; j += 2) {
+            if (this.table[j] != REMOVED) {
+                next += 2;
+            }
+        }
+        this.compact();
+        return next;
+    }
+
+    /**
+     * Squeeze the removed entries out of an indexed table, and rebuild the
+     * index, or drop it if the table is small again.
+     */
+    private void compact() {
+        final Object[] table = this.table;
+        final int end = this.used << 1;
+        int j = 0;
+        for (int i = 0; i < end; i += 2) {
+            if (table[i] != REMOVED) {
+                table[j] = table[i];
+                table[j + 1] = table[i + 1];
+                j += 2;
+            }
+        }
+        for (; j < end; j += 1) {
+            table[j] = null;
+        }
+        this.used = this.size;
+        if (this.size > THRESHOLD) {
+            this.reindex();
+        } else {
+            this.index = null;
+        }
+    }
+
+    /**
+     * Spread the bits of a hash code, so that keys whose hash codes differ
+     * only in the high bits land in different slots.
+     */
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Build the hash index of an ordered map, with at least twice as many
+     * slots as places used in the table.
+     */
+    private void reindex() {
+        int capacity = 32;
+        while (capacity < this.used << 2) {
+            capacity <<= 1;
+        }
+        int[] index = new int[capacity];
+        final int end = this.used << 1;
+        for (int i = 0; i < end; i += 2) {
+            if (this.table[i] != REMOVED) {
+                this.addToIndex(index, i);
+            }
+        }
+        this.index = index;
+    }
+
+    /**
+     * Add the entry at an index of the table to a hash index.
+     */
+    private void addToIndex(int[] index, int i) {
+        final int mask = index.length - 1;
+        Object key = this.table[i];
+        int slot = spread(key == null ? 0 : key.hashCode()) & mask;
+        while (index[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        index[slot] = (i >> 1) + 1;
+    }
+
+    /**
+     * Move the entries from the table into a HashMap.
+     */
+    private void promote() {
+        Map<String, Object> hashMap = new HashMap<String, Object>();
+        final int end = this.size << 1;
+        for (int i = 0; i < end; i += 2) {
+            hashMap.put((String) this.table[i], this.table[i + 1]);
+        }
+        this.hashMap = hashMap;
+        this.table = null;
+        this.size = 0;
+        this.used = 0;
+        this.modCount += 1;
+    }
+
+    /**
+     * The view of the entries. Its iterator follows the map if it moves its
+     * entries into a HashMap.
+     */
+    private final class EntrySet extends AbstractSet<Entry<String, Object>> {
+
+        @Override
+        public int size() {
+            return CompactMap.this.size();
+        }
+
+        @Override
+        public void clear() {
+            CompactMap.this.clear();
+        }
+
+        @Override
+        public Iterator<Entry<String, Object>> iterator() {
+            if (CompactMap.this.hashMap != null) {
+                return CompactMap.this.hashMap.entrySet().iterator();
+            }
+            return new TableIterator();
+        }
+    }
+
+    /**
+     * An iterator over the entries of the table.
+     */
+    private final class TableIterator implements Iterator<Entry<String, Object>> {
+
+        private int expectedModCount = CompactMap.this.modCount;
+        private int next;
+        private int current = -1;
+
+        @Override
+        public boolean hasNext() {
+            final Object[] table = CompactMap.this.table;
+            final int end = CompactMap.this.used << 1;
+            while (this.next < end && table[this.next] == REMOVED) {
+                this.next += 2;
+            }
+            return this.next < end;
+        }
+
+        @Override
+        public Entry<String, Object> next() {
+            if (this.expectedModCount != CompactMap.this.modCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            this.current = this.next;
+            this.next += 2;
+            return new TableEntry(this.current);
+        }
+
+        @Override
+        public void remove() {
+            if (this.current < 0) {
+                throw new IllegalStateException();
+            }
+            if (this.expectedModCount != CompactMap.this.modCount) {
+                throw new ConcurrentModificationException();
+            }
+            this.next = CompactMap.this.removeAt(this.current);
+            this.current = -1;
+            this.expectedModCount = CompactMap.this.modCount;
+        }
+    }
+
+    /**
+     * An entry of the table. Setting its value writes through to the table.
+     */
+    private final class TableEntry implements Entry<String, Object> {
+
+        private final int index;
+
+        TableEntry(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public String getKey() {
+            return (String) CompactMap.this.table[this.index];
+        }
+
+        @Override
+        public Object getValue() {
+            return CompactMap.this.table[this.index + 1];
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            Object old = CompactMap.this.table[this.index + 1];
+            CompactMap.this.table[this.index + 1] = value;
+            return old;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Entry)) {
+                return false;
+            }
+            Entry<?, ?> entry = (Entry<?, ?>) other;
+            Object key = this.getKey();
+            Object value = this.getValue();
+            return (key == null ? entry.getKey() == null : key.equals(entry.getKey()))
+                    && (value == null ? entry.getValue() == null : value.equals(entry.getValue()));
+        }
+
+        @Override
+        public int hashCode() {
+            Object key = this.getKey();
+            Object value = this.getValue();
+            return (key == null ? 0 : key.hashCode())
+                    ^ (value == null ? 0 : value.hashCode());
+        }
+
+        @Override
+        public String toString() {
+            return this.getKey() + "=" + this.getValue();
+        }
+    }
+}
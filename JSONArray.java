@@ -25,14 +25,18 @@ package org.json;
  */
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.lang.reflect.Array;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
 
 /**
  * A JSONArray is an ordered sequence of values. Its external text form is a
@@ -131,6 +135,99 @@ public class JSONArray implements Iterable<Object> {
         }
     }
 
+    /**
+     * Parse a JSON array text in parts on an ExecutorService. The elements
+     * of the outermost array are found by a quick scan of the text, and
+     * ranges of them are parsed as separate tasks and joined in order. The
+     * result is the same as that of <code>new JSONArray(source)</code>. A
+     * text shorter than about 64K characters is parsed in the calling
+     * thread.
+     *
+     * @param source
+     *            A string that begins with <code>[</code>&nbsp;<small>(left
+     *            bracket)</small> and ends with <code>]</code>
+     *            &nbsp;<small>(right bracket)</small>.
+     * @param executor
+     *            Runs the tasks.
+     * @param parts
+     *            The number of tasks to divide the text among, usually a
+     *            small multiple of the number of threads of the executor.
+     * @return A new JSONArray.
+     * @throws JSONException
+     *             If there is a syntax error, or the calling thread is
+     *             interrupted.
+     */
+    public static JSONArray parseParallel(String source,
+            ExecutorService executor, int parts) throws JSONException {
+        return ParallelArrayParser.parse(source, executor, parts);
+    }
+
+    /**
+     * Read the elements of a JSON array text one at a time, without building
+     * a JSONArray. Each call to <code>next</code> parses one element, so the
+     * elements of a large array can be processed as they are read. A syntax
+     * error is thrown as a JSONException from <code>next</code>.
+     *
+     * @param x
+     *            A JSONTokener whose next value is an array.
+     * @return An iterator over the elements.
+     * @throws JSONException
+     *             If the text does not start with <code>[</code>.
+     */
+    public static Iterator<Object> elements(final JSONTokener x)
+            throws JSONException {
+        if (x.nextClean() != '[') {
+            throw x.syntaxError("A JSONArray text must start with '['");
+        }
+        final boolean empty = x.nextClean() == ']';
+        if (!empty) {
+            x.back();
+        }
+        return new Iterator<Object>() {
+            private boolean done = empty;
+
+            @Override
+            public boolean hasNext() {
+                return !this.done;
+            }
+
+            @Override
+            public Object next() {
+                if (this.done) {
+                    throw new NoSuchElementException();
+                }
+                Object value;
+                if (x.nextClean() == ',') {
+                    x.back();
+                    value = JSONObject.NULL;
+                } else {
+                    x.back();
+                    value = x.nextValue();
+                }
+                switch (x.nextClean()) {
+                case ',':
+                    if (x.nextClean() == ']') {
+                        this.done = true;
+                    } else {
+                        x.back();
+                    }
+                    break;
+                case ']':
+                    this.done = true;
+                    break;
+                default:
+                    throw x.syntaxError("Expected a ',' or ']'");
+                }
+                return value;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
     /**
      * Construct a JSONArray from a source JSON text.
      *
@@ -1014,6 +1111,22 @@ public class JSONArray implements Iterable<Object> {
         return this;
     }
     
+    /**
+     * Insert a value before an index, moving the later elements up. An index
+     * equal to the length appends the value.
+     *
+     * @param index
+     *            The index, from 0 to the length.
+     * @param value
+     *            The value to insert.
+     * @throws JSONException
+     *             If the value is a non-finite number.
+     */
+    void insert(int index, Object value) throws JSONException {
+        JSONObject.testValidity(value);
+        this.myArrayList.add(index, value);
+    }
+
     /**
      * Creates a JSONPointer using an initialization string and tries to 
      * match it to an item within this JSONArray. For example, given a
@@ -1034,7 +1147,7 @@ public class JSONArray implements Iterable<Object> {
      * @return the item matched by the JSONPointer, otherwise null
      */
     public Object query(String jsonPointer) {
-        return new JSONPointer(jsonPointer).queryFrom(this);
+        return JSONPointer.cached(jsonPointer).queryFrom(this);
     }
     
     /**
@@ -1046,7 +1159,7 @@ public class JSONArray implements Iterable<Object> {
      * @throws IllegalArgumentException if {@code jsonPointer} has invalid syntax
      */
     public Object optQuery(String jsonPointer) {
-        JSONPointer pointer = new JSONPointer(jsonPointer);
+        JSONPointer pointer = JSONPointer.cached(jsonPointer);
         try {
             return pointer.queryFrom(this);
         } catch (JSONPointerException e) {
@@ -1157,8 +1270,12 @@ public class JSONArray implements Iterable<Object> {
      * @throws JSONException
      */
     public String toString(int indentFactor) throws JSONException {
-        StringBuilder sw = new StringBuilder();
-        return this.write(sw, indentFactor, 0).toString();
+        JSONCharSink sink = JSONCharSink.acquire();
+        try {
+            return this.write(sink, indentFactor, 0).toString();
+        } finally {
+            JSONCharSink.release(sink);
+        }
     }
 
     /**
@@ -1226,6 +1343,55 @@ public class JSONArray implements Iterable<Object> {
         }
     }
 
+    /**
+     * Write the contents of the JSONArray as JSON text, encoded as UTF-8, to
+     * a stream. The text is encoded as it is written, without building a
+     * String. For compactness, no whitespace is added.
+     * <p>
+     * Warning: This method assumes that the data structure is acyclical.
+     *
+     * @param out
+     *            The stream. It is flushed, but not closed.
+     * @return The stream.
+     * @throws JSONException
+     *             If the stream cannot be written.
+     */
+    public OutputStream writeUtf8(OutputStream out) throws JSONException {
+        try {
+            JSONUtf8Sink sink = new JSONUtf8Sink(out);
+            this.write(sink);
+            sink.flush();
+            return out;
+        } catch (IOException exception) {
+            throw new JSONException(exception);
+        }
+    }
+
+    /**
+     * Write the contents of the JSONArray as JSON text, encoded as UTF-8, into
+     * a ByteBuffer, starting at its position. For compactness, no whitespace
+     * is added.
+     * <p>
+     * Warning: This method assumes that the data structure is acyclical.
+     *
+     * @param buffer
+     *            The ByteBuffer. Its position is moved past the text.
+     * @return The ByteBuffer.
+     * @throws JSONException
+     * @throws java.nio.BufferOverflowException
+     *             If the text does not fit in the ByteBuffer.
+     */
+    public ByteBuffer writeUtf8(ByteBuffer buffer) throws JSONException {
+        try {
+            JSONUtf8Sink sink = new JSONUtf8Sink(buffer);
+            this.write(sink);
+            sink.flush();
+            return buffer;
+        } catch (IOException exception) {
+            throw new JSONException(exception);
+        }
+    }
+
     /**
      * Returns a java.util.List containing all of the elements in this array.
      * If an element in the array is a JSONArray or JSONObject it will also
@@ -0,0 +1,239 @@
+package org.json;
+
+/*
+Copyright (c) 2002 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * A JSONCharSink collects JSON text in a character buffer. The buffer grows
+ * as needed and is kept by <code>reset</code>, so one sink can be reused for
+ * many texts without growing again.
+ *
+ * @author JSON.org
+ * @version 2016-08-04
+ */
+public class JSONCharSink extends JSONSink {
+
+    /**
+     * The largest buffer that toString will keep for reuse by the thread.
+     */
+    private static final int MAX_CACHED = 1 << 16;
+
+    /**
+     * A buffer kept for each thread by the toString methods. Only the array
+     * is kept, not the sink, so that a thread does not hold on to the classes
+     * of this package.
+     */
+    private static final ThreadLocal<char[]> CACHE = new ThreadLocal<char[]>();
+
+    private char[] buffer;
+    private int count;
+
+    /**
+     * Construct a sink with a buffer of 256 characters.
+     */
+    public JSONCharSink() {
+        this(256);
+    }
+
+    /**
+     * Construct a sink.
+     *
+     * @param capacity
+     *            The initial size of the buffer.
+     */
+    public JSONCharSink(int capacity) {
+        this(new char[Math.max(capacity, 16)]);
+    }
+
+    /**
+     * Construct a sink on a buffer.
+     *
+     * @param buffer
+     *            The buffer.
+     */
+    private JSONCharSink(char[] buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Get a sink for making a string, reusing the buffer of an earlier one
+     * made by this thread if there is one. Give the sink back with release
+     * once its text has been taken.
+     *
+     * @return A sink.
+     */
+    static JSONCharSink acquire() {
+        char[] buffer = CACHE.get();
+        if (buffer == null) {
+            return new JSONCharSink(1024);
+        }
+        CACHE.set(null);
+        return new JSONCharSink(buffer);
+    }
+
+    /**
+     * Give back a sink made by acquire, so that its buffer can be reused.
+     *
+     * @param sink
+     *            A sink that is no longer needed.
+     */
+    static void release(JSONCharSink sink) {
+        if (sink.buffer.length <= MAX_CACHED) {
+            CACHE.set(sink.buffer);
+        }
+        sink.buffer = null;
+    }
+
+    /**
+     * Make room for more characters.
+     *
+     * @param n
+     *            The number of characters that will be added.
+     * @return The buffer.
+     */
+    private char[] ensure(int n) {
+        int needed = this.count + n;
+        if (needed > this.buffer.length) {
+            int capacity = this.buffer.length << 1;
+            if (capacity < needed) {
+                capacity = needed;
+            }
+            char[] buffer = new char[capacity];
+            System.arraycopy(this.buffer, 0, buffer, 0, this.count);
+            this.buffer = buffer;
+        }
+        return this.buffer;
+    }
+
+    @Override
+    public JSONCharSink append(char c) {
+        this.ensure(1)[this.count++] = c;
+        return this;
+    }
+
+    @Override
+    public JSONCharSink append(CharSequence csq) {
+        if (csq == null) {
+            csq = "null";
+        }
+        return this.append(csq, 0, csq.length());
+    }
+
+    @Override
+    public JSONCharSink append(CharSequence csq, int start, int end) {
+        if (csq == null) {
+            csq = "null";
+        }
+        int length = end - start;
+        char[] buffer = this.ensure(length);
+        if (csq instanceof String) {
+            ((String) csq).getChars(start, end, buffer, this.count);
+        } else {
+            for (int i = start, j = this.count; i < end; i += 1, j += 1) {
+                buffer[j] = csq.charAt(i);
+            }
+        }
+        this.count += length;
+        return this;
+    }
+
+    @Override
+    public JSONCharSink append(char[] chars, int offset, int length) {
+        System.arraycopy(chars, offset, this.ensure(length), this.count, length);
+        this.count += length;
+        return this;
+    }
+
+    @Override
+    void quote(CharSequence string) {
+        int len = string.length();
+        int i = JSONObject.nextEscape(string, 0, len);
+        this.ensure(len + 2);
+        this.append('"');
+        int prev = 0;
+        while (i < len) {
+            this.append(string, prev, i);
+            String escape = JSONObject.escape(string.charAt(i));
+            escape.getChars(0, escape.length(), this.ensure(escape.length()),
+                    this.count);
+            this.count += escape.length();
+            prev = i + 1;
+            i = JSONObject.nextEscape(string, prev, len);
+        }
+        this.append(string, prev, len);
+        this.append('"');
+    }
+
+    /**
+     * Get the number of characters in the sink.
+     *
+     * @return The length of the text.
+     */
+    public int length() {
+        return this.count;
+    }
+
+    /**
+     * Empty the sink, keeping its buffer.
+     */
+    public void reset() {
+        this.count = 0;
+    }
+
+    /**
+     * Copy the text to a character array.
+     *
+     * @return A new array holding the text.
+     */
+    public char[] toCharArray() {
+        char[] chars = new char[this.count];
+        System.arraycopy(this.buffer, 0, chars, 0, this.count);
+        return chars;
+    }
+
+    /**
+     * Write the text to a writer.
+     *
+     * @param writer
+     *            A writer.
+     * @throws IOException
+     *             If the writer cannot be written.
+     */
+    public void writeTo(Writer writer) throws IOException {
+        writer.write(this.buffer, 0, this.count);
+    }
+
+    /**
+     * Get the text.
+     *
+     * @return The text in the sink.
+     */
+    @Override
+    public String toString() {
+        return new String(this.buffer, 0, this.count);
+    }
+}
@@ -0,0 +1,146 @@
+package org.json;
+
+/*
+Copyright (c) 2002 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+/**
+ * A JSONKeyPool hands out canonical String instances for object keys, so that
+ * documents that share a schema also share their key strings. Give a pool to
+ * a JSONTokener with <code>setKeyPool</code>; keys read from the tokener's
+ * buffer are then matched against the pool without building a new String.
+ * <p>
+ * The pool is a fixed-size table indexed by the key's hash code. When two
+ * keys land on the same slot the newer one replaces the older, so the pool
+ * never grows beyond its capacity and keys that are no longer seen drop out.
+ * A pool may be shared by tokeners on different threads.
+ *
+ * @author JSON.org
+ * @version 2016-08-04
+ */
+public class JSONKeyPool {
+
+    /**
+     * Keys longer than this are not pooled.
+     */
+    private static final int MAX_LENGTH = 256;
+
+    /**
+     * The pooled keys, indexed by hash code.
+     */
+    private final String[] keys;
+
+    /**
+     * The table size less one.
+     */
+    private final int mask;
+
+    /**
+     * Construct a pool with room for 1024 keys.
+     */
+    public JSONKeyPool() {
+        this(1024);
+    }
+
+    /**
+     * Construct a pool.
+     *
+     * @param capacity
+     *            The number of slots, rounded up to a power of two.
+     */
+    public JSONKeyPool(int capacity) {
+        int size = 16;
+        while (size < capacity && size < (1 << 20)) {
+            size <<= 1;
+        }
+        this.keys = new String[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Get the canonical instance of a key.
+     *
+     * @param key
+     *            A key string.
+     * @return A string equal to the key.
+     */
+    public String intern(String key) {
+        int length = key.length();
+        if (length > MAX_LENGTH) {
+            return key;
+        }
+        int slot = slot(key.hashCode());
+        String pooled = this.keys[slot];
+        if (key.equals(pooled)) {
+            return pooled;
+        }
+        this.keys[slot] = key;
+        return key;
+    }
+
+    /**
+     * Get the canonical instance of a key held in a range of a character
+     * array. A new String is only made if the key is not already pooled.
+     *
+     * @param chars
+     *            The characters.
+     * @param offset
+     *            The index of the first character of the key.
+     * @param length
+     *            The length of the key.
+     * @return A string with the characters of the key.
+     */
+    public String intern(char[] chars, int offset, int length) {
+        if (length > MAX_LENGTH) {
+            return new String(chars, offset, length);
+        }
+        int hash = 0;
+        int end = offset + length;
+        for (int i = offset; i < end; i += 1) {
+            hash = 31 * hash + chars[i];
+        }
+        int slot = slot(hash);
+        String pooled = this.keys[slot];
+        if (pooled != null && pooled.length() == length) {
+            int i = 0;
+            while (i < length && pooled.charAt(i) == chars[offset + i]) {
+                i += 1;
+            }
+            if (i == length) {
+                return pooled;
+            }
+        }
+        String key = new String(chars, offset, length);
+        this.keys[slot] = key;
+        return key;
+    }
+
+    /**
+     * Find the slot for a hash code. The same hash code as
+     * <code>String.hashCode</code> is used for both forms of intern, so the
+     * hash cached in a String is reused.
+     */
+    private int slot(int hash) {
+        return (hash ^ (hash >>> 16)) & this.mask;
+    }
+}
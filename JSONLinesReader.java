@@ -0,0 +1,214 @@
+package org.json;
+
+/*
+Copyright (c) 2002 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * A JSONLinesReader reads newline-delimited JSON (JSON Lines), a text of
+ * JSON objects with one object on each line. All of the records are read
+ * through one JSONTokener and its buffer. Blank lines are skipped; anything
+ * other than whitespace after an object on its line is a syntax error.
+ * <pre>
+ * JSONLinesReader lines = new JSONLinesReader(inputStream);
+ * while (lines.hasNext()) {
+ *     JSONObject record = lines.next();
+ *     ...
+ * }</pre>
+ * <p>
+ * Records can also be read in batches with <code>nextBatch</code>, which
+ * parses the lines of a batch on an ExecutorService.
+ *
+ * @author JSON.org
+ * @version 2016-08-04
+ */
+public class JSONLinesReader implements Iterator<JSONObject> {
+
+    /**
+     * The number of lines that nextBatch gives to each task.
+     */
+    private static final int LINES_PER_TASK = 256;
+
+    /**
+     * The source of the text.
+     */
+    private final JSONTokener x;
+
+    /**
+     * Make a JSONLinesReader that reads from a JSONTokener.
+     * @param x A JSONTokener.
+     */
+    public JSONLinesReader(JSONTokener x) {
+        this.x = x;
+    }
+
+    /**
+     * Make a JSONLinesReader that reads from a Reader.
+     * @param reader A reader.
+     */
+    public JSONLinesReader(Reader reader) {
+        this(new JSONTokener(reader));
+    }
+
+    /**
+     * Make a JSONLinesReader that reads UTF-8 text from an InputStream.
+     * @param inputStream The source.
+     */
+    public JSONLinesReader(InputStream inputStream) {
+        this(JSONTokener.fromUtf8(inputStream));
+    }
+
+    /**
+     * Determine if there is another record.
+     * @return true if a record follows.
+     * @throws JSONException If the source cannot be read.
+     */
+    @Override
+    public boolean hasNext() throws JSONException {
+        if (this.x.nextClean() == 0) {
+            return false;
+        }
+        this.x.back();
+        return true;
+    }
+
+    /**
+     * Read the next record.
+     * @return A JSONObject.
+     * @throws JSONException If there is a syntax error.
+     * @throws NoSuchElementException If there are no more records.
+     */
+    @Override
+    public JSONObject next() throws JSONException {
+        if (!this.hasNext()) {
+            throw new NoSuchElementException();
+        }
+        JSONObject jo = new JSONObject(this.x);
+        endLine(this.x);
+        return jo;
+    }
+
+    /**
+     * Read up to the given number of records. The lines are split off the
+     * tokener's buffer in the calling thread, then parsed in groups on the
+     * executor by tokeners that share the source tokener's key pool and
+     * ordering, and the records are returned in the order of their lines.
+     * @param size The largest number of records to read.
+     * @param executor Parses the lines, or null to parse them in the calling
+     *  thread.
+     * @return The records, an empty list at the end of the text.
+     * @throws JSONException If there is a syntax error, or the calling
+     *  thread is interrupted.
+     */
+    public List<JSONObject> nextBatch(int size, ExecutorService executor)
+            throws JSONException {
+        final JSONTokener[] lines = this.x.nextLines(size);
+        if (executor == null || lines.length <= LINES_PER_TASK) {
+            return parse(lines, 0, lines.length);
+        }
+        List<Future<List<JSONObject>>> futures =
+                new ArrayList<Future<List<JSONObject>>>();
+        for (int i = 0; i < lines.length; i += LINES_PER_TASK) {
+            final int start = i;
+            final int end = Math.min(lines.length, i + LINES_PER_TASK);
+            futures.add(executor.submit(new Callable<List<JSONObject>>() {
+                @Override
+                public List<JSONObject> call() throws JSONException {
+                    return parse(lines, start, end);
+                }
+            }));
+        }
+        List<JSONObject> batch = new ArrayList<JSONObject>(lines.length);
+        try {
+            for (Future<List<JSONObject>> future : futures) {
+                batch.addAll(future.get());
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new JSONException(exception);
+        } catch (ExecutionException exception) {
+            if (exception.getCause() instanceof JSONException) {
+                throw (JSONException) exception.getCause();
+            }
+            throw new JSONException(exception.getCause());
+        }
+        return batch;
+    }
+
+    /**
+     * Records cannot be removed.
+     * @throws UnsupportedOperationException Always.
+     */
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Parse a range of lines.
+     * @param lines The tokeners of the lines.
+     * @param start The index of the first line.
+     * @param end The index after the last line.
+     * @return The records.
+     * @throws JSONException If there is a syntax error.
+     */
+    private static List<JSONObject> parse(JSONTokener[] lines, int start,
+            int end) throws JSONException {
+        List<JSONObject> records = new ArrayList<JSONObject>(end - start);
+        for (int i = start; i < end; i += 1) {
+            JSONTokener x = lines[i];
+            records.add(new JSONObject(x));
+            endLine(x);
+        }
+        return records;
+    }
+
+    /**
+     * Skip the rest of the line after a record, which may hold only
+     * whitespace.
+     * @param x The tokener.
+     * @throws JSONException If something else follows the record.
+     */
+    private static void endLine(JSONTokener x) throws JSONException {
+        for (;;) {
+            char c = x.next();
+            if (c == 0 || c == '\n') {
+                return;
+            }
+            if (c > ' ') {
+                throw x.syntaxError("Expected a newline after a record");
+            }
+        }
+    }
+}
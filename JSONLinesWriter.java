@@ -0,0 +1,99 @@
+package org.json;
+
+/*
+Copyright (c) 2002 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A JSONLinesWriter writes newline-delimited JSON (JSON Lines): each value
+ * is written compactly, followed by a newline.
+ * <pre>
+ * JSONLinesWriter lines = new JSONLinesWriter(outputStream);
+ * for (JSONObject record : records) {
+ *     lines.write(record);
+ * }
+ * lines.flush();</pre>
+ * <p>
+ * A JSONLinesWriter on an OutputStream encodes the text as UTF-8 through a
+ * {@link JSONUtf8Sink}, so <code>flush</code> must be called after the last
+ * record.
+ *
+ * @author JSON.org
+ * @version 2016-08-04
+ */
+public class JSONLinesWriter implements Flushable {
+
+    /**
+     * The writer that will receive the output.
+     */
+    private final Appendable writer;
+
+    /**
+     * Make a JSONLinesWriter that writes to an Appendable.
+     * @param writer The destination.
+     */
+    public JSONLinesWriter(Appendable writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Make a JSONLinesWriter that writes UTF-8 text to an OutputStream
+     * through a buffer.
+     * @param out The stream.
+     */
+    public JSONLinesWriter(OutputStream out) {
+        this(new JSONUtf8Sink(out));
+    }
+
+    /**
+     * Write a record and the newline that ends it.
+     * @param value A JSONObject, JSONArray, or other value.
+     * @return this
+     * @throws JSONException If the value cannot be written.
+     */
+    public JSONLinesWriter write(Object value) throws JSONException {
+        try {
+            JSONObject.writeValue(this.writer, value, 0, 0);
+            this.writer.append('\n');
+            return this;
+        } catch (IOException exception) {
+            throw new JSONException(exception);
+        }
+    }
+
+    /**
+     * Write any buffered output, and flush the destination if it can be
+     * flushed.
+     * @throws IOException If the destination cannot be written.
+     */
+    @Override
+    public void flush() throws IOException {
+        if (this.writer instanceof Flushable) {
+            ((Flushable) this.writer).flush();
+        }
+    }
+}
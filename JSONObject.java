@@ -25,15 +25,18 @@ package org.json;
  */
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Array;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.util.Collection;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -149,11 +152,89 @@ public class JSONObject {
      */
     public static final Object NULL = new Null();
 
+    /**
+     * The escape sequences used by quote for the characters below U+00A0,
+     * or null for a character that needs no escape.
+     */
+    private static final String[] ESCAPES = new String[0xa0];
+
+    /**
+     * The escape sequences used by quote for the characters U+2000 to
+     * U+20FF.
+     */
+    private static final String[] ESCAPES_2000 = new String[0x100];
+
+    /**
+     * The size of the array that formatNumber writes into.
+     */
+    static final int NUMBER_LENGTH = 24;
+
+    /**
+     * The powers of ten that are exact doubles and small enough for
+     * formatNumber.
+     */
+    private static final double[] POW10 = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5,
+            1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17 };
+
+    static {
+        for (char c = 0; c < ' '; c += 1) {
+            ESCAPES[c] = unicodeEscape(c);
+        }
+        for (char c = '\u0080'; c < '\u00a0'; c += 1) {
+            ESCAPES[c] = unicodeEscape(c);
+        }
+        for (int i = 0; i < 0x100; i += 1) {
+            ESCAPES_2000[i] = unicodeEscape((char) (0x2000 + i));
+        }
+        ESCAPES['\b'] = "\\b";
+        ESCAPES['\t'] = "\\t";
+        ESCAPES['\n'] = "\\n";
+        ESCAPES['\f'] = "\\f";
+        ESCAPES['\r'] = "\\r";
+        ESCAPES['"'] = "\\\"";
+        ESCAPES['\\'] = "\\\\";
+        ESCAPES['/'] = "\\/";
+    }
+
+    /**
+     * Make the six character unicode escape sequence for a character.
+     */
+    private static String unicodeEscape(char c) {
+        final String hex = "0123456789abcdef";
+        return new String(new char[] { '\\', 'u', hex.charAt(c >>> 12),
+                hex.charAt((c >>> 8) & 0xf), hex.charAt((c >>> 4) & 0xf),
+                hex.charAt(c & 0xf) });
+    }
+
     /**
      * Construct an empty JSONObject.
      */
     public JSONObject() {
-        this.map = new HashMap<String, Object>();
+        this.map = new CompactMap();
+    }
+
+    /**
+     * Construct an empty JSONObject.
+     *
+     * @param ordered
+     *            True if the keys are to be kept in the order in which they
+     *            were put.
+     */
+    private JSONObject(boolean ordered) {
+        this.map = new CompactMap(ordered);
+    }
+
+    /**
+     * Construct an empty JSONObject that keeps its keys in the order in which
+     * they were put. The keys, keySet, and write methods produce the keys in
+     * that order, so the same content always gives the same text. Use
+     * <code>JSONTokener.setOrdered</code> to parse text into ordered
+     * JSONObjects.
+     *
+     * @return An empty ordered JSONObject.
+     */
+    public static JSONObject ordered() {
+        return new JSONObject(true);
     }
 
     /**
@@ -186,7 +267,7 @@ public class JSONObject {
      *             duplicated key.
      */
     public JSONObject(JSONTokener x) throws JSONException {
-        this();
+        this(x.isOrdered());
         char c;
         String key;
 
@@ -202,7 +283,7 @@ public class JSONObject {
                 return;
             default:
                 x.back();
-                key = x.nextValue().toString();
+                key = x.nextKey();
             }
 
 // The key is followed by ':'.
@@ -239,7 +320,7 @@ public class JSONObject {
      *            the JSONObject.
      */
     public JSONObject(Map<?, ?> map) {
-        this.map = new HashMap<String, Object>();
+        this.map = new CompactMap();
         if (map != null) {
             for (final Entry<?, ?> e : map.entrySet()) {
                 final Object value = e.getValue();
@@ -436,6 +517,11 @@ public class JSONObject {
         if (Double.isInfinite(d) || Double.isNaN(d)) {
             return "null";
         }
+        char[] digits = new char[NUMBER_LENGTH];
+        int length = formatDouble(d, digits);
+        if (length >= 0) {
+            return new String(digits, 0, length);
+        }
 
 // Shave off trailing zeros and decimal point, if possible.
 
@@ -787,6 +873,16 @@ public class JSONObject {
         return JSONObject.NULL.equals(this.opt(key));
     }
 
+    /**
+     * Determine if the JSONObject keeps its keys in the order in which they
+     * were put.
+     *
+     * @return true if the JSONObject is ordered.
+     */
+    public boolean isOrdered() {
+        return ((CompactMap) this.map).isOrdered();
+    }
+
     /**
      * Get an enumeration of the keys of the JSONObject.
      *
@@ -844,6 +940,11 @@ public class JSONObject {
             throw new JSONException("Null pointer");
         }
         testValidity(number);
+        char[] digits = new char[NUMBER_LENGTH];
+        int length = formatNumber(number, digits);
+        if (length >= 0) {
+            return new String(digits, 0, length);
+        }
 
 // Shave off trailing zeros and decimal point, if possible.
 
@@ -860,6 +961,111 @@ public class JSONObject {
         return string;
     }
 
+    /**
+     * Write the text of a Number into an array of at least NUMBER_LENGTH
+     * characters, as numberToString would make it. This is done without
+     * making any strings for a Byte, Short, Integer or Long, and for a finite
+     * Double that Double.toString would write without an exponent and that
+     * has at most 15 significant digits. Other numbers are left to
+     * numberToString.
+     *
+     * @param number
+     *            A Number.
+     * @param digits
+     *            Receives the text.
+     * @return The length of the text, or -1 if the number was not written.
+     */
+    static int formatNumber(Number number, char[] digits) {
+        if (number instanceof Integer || number instanceof Long
+                || number instanceof Short || number instanceof Byte) {
+            return formatLong(number.longValue(), digits, 0);
+        }
+        if (number instanceof Double) {
+            return formatDouble(number.doubleValue(), digits);
+        }
+        return -1;
+    }
+
+    /**
+     * Write the text of a double, if it has at most 15 significant digits and
+     * Double.toString would write it without an exponent.
+     *
+     * @param d
+     *            A double.
+     * @param digits
+     *            Receives the text.
+     * @return The length of the text, or -1 if the number was not written.
+     */
+    private static int formatDouble(double d, char[] digits) {
+        if (d == 0) {
+            if (Double.doubleToRawLongBits(d) < 0) {
+                digits[0] = '-';
+                digits[1] = '0';
+                return 2;
+            }
+            digits[0] = '0';
+            return 1;
+        }
+        double a = Math.abs(d);
+        if (!(a >= 1e-3 && a < 1e7)) {
+            return -1;
+        }
+
+// Find the fewest decimal places that give back the same double. Any decimal
+// of up to 15 significant digits is the only one of its length that rounds to
+// its double, so that is the text Double.toString makes, less its trailing
+// zeros.
+
+        for (int scale = 0; scale < POW10.length; scale += 1) {
+            double scaled = a * POW10[scale];
+            if (scaled >= 1e15) {
+                break;
+            }
+            long unscaled = Math.round(scaled);
+            if (unscaled / POW10[scale] == a) {
+                return formatLong(d < 0 ? -unscaled : unscaled, digits, scale);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Write the decimal digits of a long, with a decimal point before the
+     * last scale digits.
+     *
+     * @param unscaled
+     *            A long.
+     * @param digits
+     *            Receives the text.
+     * @param scale
+     *            The number of digits after the decimal point.
+     * @return The length of the text.
+     */
+    private static int formatLong(long unscaled, char[] digits, int scale) {
+
+// Work with the negative value, so that Long.MIN_VALUE needs no special case.
+
+        boolean negative = unscaled < 0;
+        long rest = negative ? unscaled : -unscaled;
+        int i = NUMBER_LENGTH;
+        int written = 0;
+        do {
+            long next = rest / 10;
+            digits[--i] = (char) ('0' + (next * 10 - rest));
+            rest = next;
+            written += 1;
+            if (written == scale) {
+                digits[--i] = '.';
+            }
+        } while (rest != 0 || written <= scale);
+        if (negative) {
+            digits[--i] = '-';
+        }
+        int length = NUMBER_LENGTH - i;
+        System.arraycopy(digits, i, digits, 0, length);
+        return length;
+    }
+
     /**
      * Get an optional value associated with a key.
      *
@@ -1180,45 +1386,14 @@ public class JSONObject {
     }
 
     private void populateMap(Object bean) {
-        Class<?> klass = bean.getClass();
-
-// If klass is a System class then set includeSuperClass to false.
-
-        boolean includeSuperClass = klass.getClassLoader() != null;
-
-        Method[] methods = includeSuperClass ? klass.getMethods() : klass
-                .getDeclaredMethods();
-        for (int i = 0; i < methods.length; i += 1) {
+        BeanProperties properties = BeanProperties.of(bean.getClass());
+        String[] keys = properties.keys;
+        Method[] getters = properties.getters;
+        for (int i = 0; i < getters.length; i += 1) {
             try {
-                Method method = methods[i];
-                if (Modifier.isPublic(method.getModifiers())) {
-                    String name = method.getName();
-                    String key = "";
-                    if (name.startsWith("get")) {
-                        if ("getClass".equals(name)
-                                || "getDeclaringClass".equals(name)) {
-                            key = "";
-                        } else {
-                            key = name.substring(3);
-                        }
-                    } else if (name.startsWith("is")) {
-                        key = name.substring(2);
-                    }
-                    if (key.length() > 0
-                            && Character.isUpperCase(key.charAt(0))
-                            && method.getParameterTypes().length == 0) {
-                        if (key.length() == 1) {
-                            key = key.toLowerCase();
-                        } else if (!Character.isUpperCase(key.charAt(1))) {
-                            key = key.substring(0, 1).toLowerCase()
-                                    + key.substring(1);
-                        }
-
-                        Object result = method.invoke(bean, (Object[]) null);
-                        if (result != null) {
-                            this.map.put(key, wrap(result));
-                        }
-                    }
+                Object result = getters[i].invoke(bean, (Object[]) null);
+                if (result != null) {
+                    this.map.put(keys[i], wrap(result));
                 }
             } catch (Exception ignore) {
             }
@@ -1410,7 +1585,7 @@ public class JSONObject {
      * @return the item matched by the JSONPointer, otherwise null
      */
     public Object query(String jsonPointer) {
-        return new JSONPointer(jsonPointer).queryFrom(this);
+        return JSONPointer.cached(jsonPointer).queryFrom(this);
     }
     
     /**
@@ -1422,7 +1597,7 @@ public class JSONObject {
      * @throws IllegalArgumentException if {@code jsonPointer} has invalid syntax
      */
     public Object optQuery(String jsonPointer) {
-        JSONPointer pointer = new JSONPointer(jsonPointer);
+        JSONPointer pointer = JSONPointer.cached(jsonPointer);
         try {
             return pointer.queryFrom(this);
         } catch (JSONPointerException e) {
@@ -1455,91 +1630,112 @@ public class JSONObject {
             w.append("\"\"");
             return w;
         }
+        if (w instanceof StringBuilder) {
+            quoteTo(string, (StringBuilder) w);
+        } else if (w instanceof JSONSink) {
+            ((JSONSink) w).quote(string);
+        } else {
+            quoteTo(string, w);
+        }
+        return w;
+    }
 
-        char b;
-        char c = 0;
-        String hhhh;
-        int i;
+    /**
+     * Quote a string into any Appendable.
+     *
+     * @param string
+     *            A non-empty string.
+     * @param w
+     *            The Appendable to append to.
+     * @throws IOException
+     */
+    static void quoteTo(CharSequence string, Appendable w) throws IOException {
         int len = string.length();
-        int prev = 0;
+        int i = nextEscape(string, 0, len);
 
         w.append('"');
-        for (i = 0; i < len; i += 1) {
-            b = c;
-            c = string.charAt(i);
-            switch (c) {
-            case '\\':
-            case '"':
-                if(prev < i) {
-                    w.append(string, prev, i);
-                }
-                w.append('\\');
-                prev = i;
-                break;
-            case '/':
-                if (b == '<') {
-                    if(prev < i) {
-                        w.append(string, prev, i);
-                    }
-                    w.append('\\');
-                    prev = i;
-                }
-                break;
-            case '\b':
-                if(prev < i) {
-                    w.append(string, prev, i);
-                }
-                w.append("\\b");
-                prev = i + 1;
-                break;
-            case '\t':
-                if(prev < i) {
-                    w.append(string, prev, i);
-                }
-                w.append("\\t");
-                prev = i + 1;
-                break;
-            case '\n':
-                if(prev < i) {
-                    w.append(string, prev, i);
-                }
-                w.append("\\n");
-                prev = i + 1;
-                break;
-            case '\f':
-                if(prev < i) {
-                    w.append(string, prev, i);
-                }
-                w.append("\\f");
-                prev = i + 1;
-                break;
-            case '\r':
-                if(prev < i) {
+        if (i == len) {
+            w.append(string);
+        } else {
+            int prev = 0;
+            do {
+                if (prev < i) {
                     w.append(string, prev, i);
                 }
-                w.append("\\r");
+                w.append(escape(string.charAt(i)));
                 prev = i + 1;
-                break;
-            default:
-                if (c < ' ' || (c >= '\u0080' && c < '\u00a0')
-                        || (c >= '\u2000' && c < '\u2100')) {
-                    if(prev < i) {
-                        w.append(string, prev, i);
-                    }
-                    hhhh = Integer.toHexString(c);
-                    w.append("\\u0000", 0, 6 - hhhh.length());
-                    w.append(hhhh);
-                    prev = i + 1;
-                }
+                i = nextEscape(string, prev, len);
+            } while (i < len);
+            if (prev < len) {
+                w.append(string, prev, len);
             }
         }
-        if(prev == 0) {
-            w.append(string);
-        } else if(prev < len) {
-            w.append(string, prev, len);
-        }
         w.append('"');
-        return w;
+    }
+
+    /**
+     * Quote a string into a StringBuilder. The builder is grown once for the
+     * whole string, and the calls on it can be bound statically.
+     *
+     * @param string
+     *            A non-empty string.
+     * @param sb
+     *            The StringBuilder to append to.
+     */
+    private static void quoteTo(CharSequence string, StringBuilder sb) {
+        int len = string.length();
+        int i = nextEscape(string, 0, len);
+
+        sb.ensureCapacity(sb.length() + len + 2);
+        sb.append('"');
+        int prev = 0;
+        while (i < len) {
+            sb.append(string, prev, i);
+            sb.append(escape(string.charAt(i)));
+            prev = i + 1;
+            i = nextEscape(string, prev, len);
+        }
+        sb.append(string, prev, len);
+        sb.append('"');
+    }
+
+    /**
+     * Find the next character of a string that quote must escape. The
+     * character '/' is escaped only after '<'.
+     *
+     * @param string
+     *            A string.
+     * @param from
+     *            The index to start looking at.
+     * @param len
+     *            The length of the string.
+     * @return The index of the character, or len if there is none.
+     */
+    static int nextEscape(CharSequence string, int from, int len) {
+        final String[] escapes = ESCAPES;
+        for (int i = from; i < len; i += 1) {
+            char c = string.charAt(i);
+            if (c < '\u00a0') {
+                if (escapes[c] != null
+                        && (c != '/' || (i > 0 && string.charAt(i - 1) == '<'))) {
+                    return i;
+                }
+            } else if (c >= '\u2000' && c < '\u2100') {
+                return i;
+            }
+        }
+        return len;
+    }
+
+    /**
+     * Get the escape sequence for a character found by nextEscape.
+     *
+     * @param c
+     *            A character that must be escaped.
+     * @return The escape sequence.
+     */
+    static String escape(char c) {
+        return c < '\u00a0' ? ESCAPES[c] : ESCAPES_2000[c - '\u2000'];
     }
 
     /**
@@ -1603,7 +1799,8 @@ public class JSONObject {
      * @return A simple JSON value.
      */
     public static Object stringToValue(String string) {
-        if (string.equals("")) {
+        int length = string.length();
+        if (length == 0) {
             return string;
         }
         if (string.equalsIgnoreCase("true")) {
@@ -1618,29 +1815,57 @@ public class JSONObject {
 
         /*
          * If it might be a number, try converting it. If a number cannot be
-         * produced, then the value will just be a string.
+         * produced, then the value will just be a string. A single pass
+         * decides whether it is a decimal, an integer in canonical form, or
+         * neither.
          */
 
         char initial = string.charAt(0);
         if ((initial >= '0' && initial <= '9') || initial == '-') {
-            try {
-                if (string.indexOf('.') > -1 || string.indexOf('e') > -1
-                        || string.indexOf('E') > -1
-                        || "-0".equals(string)) {
+            int start = initial == '-' ? 1 : 0;
+            boolean decimal = false;
+            boolean integer = start < length;
+            for (int i = start; i < length; i += 1) {
+                char c = string.charAt(i);
+                if (c == '.' || c == 'e' || c == 'E') {
+                    decimal = true;
+                } else if (c < '0' || c > '9') {
+                    integer = false;
+                }
+            }
+            if (decimal || (length == 2 && start == 1 && string.charAt(1) == '0')) {
+                try {
                     Double d = Double.valueOf(string);
                     if (!d.isInfinite() && !d.isNaN()) {
                         return d;
                     }
+                } catch (Exception ignore) {
+                }
+            } else if (integer && (string.charAt(start) != '0' || length == start + 1)) {
+
+// The digits are canonical, so the value has the same text as its toString.
+// Up to 18 digits cannot overflow a long.
+
+                long value;
+                if (length - start <= 18) {
+                    value = 0;
+                    for (int i = start; i < length; i += 1) {
+                        value = value * 10 + (string.charAt(i) - '0');
+                    }
+                    if (start == 1) {
+                        value = -value;
+                    }
                 } else {
-                    Long myLong = new Long(string);
-                    if (string.equals(myLong.toString())) {
-                        if (myLong.longValue() == myLong.intValue()) {
-                            return Integer.valueOf(myLong.intValue());
-                        }
-                        return myLong;
+                    try {
+                        value = Long.parseLong(string);
+                    } catch (NumberFormatException ignore) {
+                        return string;
                     }
                 }
-            } catch (Exception ignore) {
+                if (value == (int) value) {
+                    return Integer.valueOf((int) value);
+                }
+                return Long.valueOf(value);
             }
         }
         return string;
@@ -1728,8 +1953,12 @@ public class JSONObject {
      *             If the object contains an invalid number.
      */
     public String toString(int indentFactor) throws JSONException {
-        StringBuilder w = new StringBuilder();
-        return this.write(w, indentFactor, 0).toString();
+        JSONCharSink sink = JSONCharSink.acquire();
+        try {
+            return this.write(sink, indentFactor, 0).toString();
+        } finally {
+            JSONCharSink.release(sink);
+        }
     }
 
     /**
@@ -1757,7 +1986,12 @@ public class JSONObject {
      *             If the value is or contains an invalid number.
      */
     public static String valueToString(Object value) throws JSONException {
-        return writeValue(new StringBuilder(), value).toString();
+        JSONCharSink sink = JSONCharSink.acquire();
+        try {
+            return writeValue(sink, value).toString();
+        } finally {
+            JSONCharSink.release(sink);
+        }
     }
 
     /**
@@ -1799,12 +2033,7 @@ public class JSONObject {
                 Map<?, ?> map = (Map<?, ?>) object;
                 return new JSONObject(map);
             }
-            Package objectPackage = object.getClass().getPackage();
-            String objectPackageName = objectPackage != null ? objectPackage
-                    .getName() : "";
-            if (objectPackageName.startsWith("java.")
-                    || objectPackageName.startsWith("javax.")
-                    || object.getClass().getClassLoader() == null) {
+            if (isSystemClass(object.getClass())) {
                 return object.toString();
             }
             return new JSONObject(object);
@@ -1813,6 +2042,169 @@ public class JSONObject {
         }
     }
 
+    /**
+     * Test whether a class belongs to the Java platform, so that wrap gives
+     * its objects as strings rather than as beans.
+     *
+     * @param klass
+     *            A class.
+     * @return true if the class is a system class.
+     */
+    static boolean isSystemClass(Class<?> klass) {
+        Package objectPackage = klass.getPackage();
+        String objectPackageName = objectPackage != null ? objectPackage
+                .getName() : "";
+        return objectPackageName.startsWith("java.")
+                || objectPackageName.startsWith("javax.")
+                || klass.getClassLoader() == null;
+    }
+
+    /**
+     * Make a bean of a class from the members of this JSONObject. The class
+     * must have a constructor without arguments. Each key is bound to the
+     * public setter named as <code>JSONObject(Object bean)</code> names a
+     * getter, so <code>"name"</code> is given to <code>setName</code>, or
+     * else to a public field of the same name. Keys that match neither are
+     * ignored. Values are converted to the property's type: numbers,
+     * booleans, strings, enums, nested beans, Maps, Lists, Sets and arrays.
+     * The setters and fields of each class are found only once.
+     *
+     * @param klass
+     *            The bean class.
+     * @return A new bean.
+     * @throws JSONException
+     *             If the bean cannot be made, or a value cannot be converted
+     *             to its property's type.
+     */
+    public <T> T toBean(Class<T> klass) throws JSONException {
+        return klass.cast(BeanBinder.of(klass).bind(this));
+    }
+
+    /**
+     * Make a bean of a class from the next JSON object of a tokener, as
+     * <code>new JSONObject(x).toBean(klass)</code> would, but without
+     * building the JSONObject. Values bound to bean properties are read in
+     * the same way; other objects and arrays are parsed as usual, and values
+     * of keys that have no property are skipped.
+     *
+     * @param x
+     *            A JSONTokener whose next value is an object.
+     * @param klass
+     *            The bean class.
+     * @return A new bean.
+     * @throws JSONException
+     *             If there is a syntax error, the bean cannot be made, or a
+     *             value cannot be converted to its property's type.
+     */
+    public static <T> T toBean(JSONTokener x, Class<T> klass)
+            throws JSONException {
+        JSONReader reader = new JSONReader(x);
+        if (reader.next() != JSONReader.Event.START_OBJECT) {
+            throw x.syntaxError("A JSONObject text must begin with '{'");
+        }
+        return klass.cast(BeanBinder.of(klass).bind(reader));
+    }
+
+    /**
+     * Write a bean as JSON text to a writer, producing the same members as
+     * <code>new JSONObject(bean).write(writer)</code> without building the
+     * JSONObject. The members are written in the order of the getters. The
+     * values of the getters are written as they are got,
+     * and so are the beans, collections and arrays among them. For
+     * compactness, no whitespace is added.
+     * <p>
+     * Warning: This method assumes that the data structure is acyclical.
+     *
+     * @param writer
+     *            Writes the serialized JSON
+     * @param bean
+     *            An object that has getter methods.
+     * @return The writer.
+     * @throws JSONException
+     */
+    public static <T extends Appendable> T writeBean(T writer, Object bean)
+            throws JSONException {
+        try {
+            writeBeanTo(writer, bean);
+            return writer;
+        } catch (IOException exception) {
+            throw new JSONException(exception);
+        }
+    }
+
+    /**
+     * Write the getter values of a bean as a JSON object.
+     */
+    private static void writeBeanTo(Appendable writer, Object bean)
+            throws JSONException, IOException {
+        BeanProperties properties = BeanProperties.of(bean.getClass());
+        if (properties.duplicates) {
+
+// The last getter with a value wins, which only the map can tell.
+
+            new JSONObject(bean).write(writer);
+            return;
+        }
+        String[] keys = properties.keys;
+        Method[] getters = properties.getters;
+        boolean commanate = false;
+        writer.append('{');
+        for (int i = 0; i < getters.length; i += 1) {
+            Object result;
+            try {
+                result = getters[i].invoke(bean, (Object[]) null);
+            } catch (Exception ignore) {
+                continue;
+            }
+            if (result != null) {
+                if (commanate) {
+                    writer.append(',');
+                }
+                quote(keys[i], writer);
+                writer.append(':');
+                writeWrapped(writer, result);
+                commanate = true;
+            }
+        }
+        writer.append('}');
+    }
+
+    /**
+     * Write a value as <code>writeValue(writer, wrap(value))</code> would,
+     * without wrapping beans, collections or arrays.
+     */
+    private static void writeWrapped(Appendable writer, Object value)
+            throws JSONException, IOException {
+        if (value instanceof Collection) {
+            boolean commanate = false;
+            writer.append('[');
+            for (Object element : (Collection<?>) value) {
+                if (commanate) {
+                    writer.append(',');
+                }
+                writeWrapped(writer, element);
+                commanate = true;
+            }
+            writer.append(']');
+        } else if (value != null && value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            writer.append('[');
+            for (int i = 0; i < length; i += 1) {
+                if (i > 0) {
+                    writer.append(',');
+                }
+                writeWrapped(writer, Array.get(value, i));
+            }
+            writer.append(']');
+        } else if (NULL.equals(value) || value instanceof JSONObject
+                || value instanceof JSONArray || value instanceof JSONString
+                || value instanceof Map || isSystemClass(value.getClass())) {
+            writeValue(writer, wrap(value), 0, 0);
+        } else {
+            writeBeanTo(writer, value);
+        }
+    }
+
     /**
      * Write the contents of the JSONObject as JSON text to a writer. For
      * compactness, no whitespace is added.
@@ -1852,7 +2244,11 @@ public class JSONObject {
         } else if (value.getClass().isArray()) {
             new JSONArray(value).write(writer, indentFactor, indent);
         } else if (value instanceof Number) {
-            writer.append(numberToString((Number) value));
+            if (writer instanceof JSONSink) {
+                ((JSONSink) writer).number((Number) value);
+            } else {
+                writer.append(numberToString((Number) value));
+            }
         } else if (value instanceof Boolean) {
             writer.append(value.toString());
         } else if (value instanceof JSONString) {
@@ -1899,21 +2295,21 @@ public class JSONObject {
         try {
             boolean commanate = false;
             final int length = this.length();
-            Iterator<String> keys = this.keys();
+            Iterator<Entry<String, Object>> entries = this.map.entrySet().iterator();
             writer.append('{');
 
             if (length == 1) {
-                String key = keys.next();
-                quote(key, writer);
+                Entry<String, Object> entry = entries.next();
+                quote(entry.getKey(), writer);
                 writer.append(':');
                 if (indentFactor > 0) {
                     writer.append(' ');
                 }
-                writeValue(writer, this.map.get(key), indentFactor, indent);
+                writeValue(writer, entry.getValue(), indentFactor, indent);
             } else if (length != 0) {
                 final int newindent = indent + indentFactor;
-                while (keys.hasNext()) {
-                    String key = keys.next();
+                while (entries.hasNext()) {
+                    Entry<String, Object> entry = entries.next();
                     if (commanate) {
                         writer.append(',');
                     }
@@ -1921,12 +2317,12 @@ public class JSONObject {
                         writer.append('\n');
                     }
                     indent(writer, newindent);
-                    quote(key, writer);
+                    quote(entry.getKey(), writer);
                     writer.append(':');
                     if (indentFactor > 0) {
                         writer.append(' ');
                     }
-                    writeValue(writer, this.map.get(key), indentFactor, newindent);
+                    writeValue(writer, entry.getValue(), indentFactor, newindent);
                     commanate = true;
                 }
                 if (indentFactor > 0) {
@@ -1941,17 +2337,68 @@ public class JSONObject {
         }
     }
 
+    /**
+     * Write the contents of the JSONObject as JSON text, encoded as UTF-8, to
+     * a stream. The text is encoded as it is written, without building a
+     * String. For compactness, no whitespace is added.
+     * <p>
+     * Warning: This method assumes that the data structure is acyclical.
+     *
+     * @param out
+     *            The stream. It is flushed, but not closed.
+     * @return The stream.
+     * @throws JSONException
+     *             If the stream cannot be written.
+     */
+    public OutputStream writeUtf8(OutputStream out) throws JSONException {
+        try {
+            JSONUtf8Sink sink = new JSONUtf8Sink(out);
+            this.write(sink);
+            sink.flush();
+            return out;
+        } catch (IOException exception) {
+            throw new JSONException(exception);
+        }
+    }
+
+    /**
+     * Write the contents of the JSONObject as JSON text, encoded as UTF-8, into
+     * a ByteBuffer, starting at its position. For compactness, no whitespace
+     * is added.
+     * <p>
+     * Warning: This method assumes that the data structure is acyclical.
+     *
+     * @param buffer
+     *            The ByteBuffer. Its position is moved past the text.
+     * @return The ByteBuffer.
+     * @throws JSONException
+     * @throws java.nio.BufferOverflowException
+     *             If the text does not fit in the ByteBuffer.
+     */
+    public ByteBuffer writeUtf8(ByteBuffer buffer) throws JSONException {
+        try {
+            JSONUtf8Sink sink = new JSONUtf8Sink(buffer);
+            this.write(sink);
+            sink.flush();
+            return buffer;
+        } catch (IOException exception) {
+            throw new JSONException(exception);
+        }
+    }
+
     /**
      * Returns a java.util.Map containing all of the entries in this object.
      * If an entry in the object is a JSONArray or JSONObject it will also
-     * be converted.
+     * be converted. The map of an ordered object keeps its order.
      * <p>
      * Warning: This method assumes that the data structure is acyclical.
      *
      * @return a java.util.Map containing the entries of this object
      */
     public Map<String, Object> toMap() {
-        Map<String, Object> results = new HashMap<String, Object>();
+        Map<String, Object> results = this.isOrdered()
+                ? new LinkedHashMap<String, Object>()
+                : new HashMap<String, Object>();
         for (Entry<String, Object> entry : this.map.entrySet()) {
             Object value;
             if (entry.getValue() == null || NULL.equals(entry.getValue())) {
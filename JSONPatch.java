@@ -0,0 +1,634 @@
+package org.json;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+Copyright (c) 2002 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+/**
+ * A JSONPatch is a sequence of changes to a JSON document, as defined by
+ * <a href="https://tools.ietf.org/html/rfc6902">RFC 6902</a>. A patch is
+ * read from its JSON form, an array of operations such as <pre>
+ * [{"op":"replace","path":"/user/name","value":"Ann"},
+ *  {"op":"remove","path":"/tags/0"}]</pre>
+ * and its paths are compiled into {@link JSONPointer}s once, so the same
+ * patch can be applied to many documents. The operations are
+ * <code>add</code>, <code>remove</code>, <code>replace</code>,
+ * <code>move</code>, <code>copy</code> and <code>test</code>.
+ * <p>
+ * <code>apply</code> changes the document in place. It is the cheapest way
+ * to apply a patch, but if an operation fails, the operations before it
+ * remain applied. <code>applyCopy</code> leaves the document alone and
+ * copies only the objects and arrays on the paths that the patch changes,
+ * sharing everything else with the document, so it fails without effect.
+ * <p>
+ * <code>diff</code> makes the patch that turns one document into another.
+ * It walks the two trees together as <code>JSONObject.similar</code> does,
+ * and matches the elements of arrays by their longest common subsequence,
+ * or position by position if the arrays are too long for that.
+ * @author JSON.org
+ * @version 2016-08-04
+ */
+public class JSONPatch {
+
+    /**
+     * The largest number of cells in the table used to match the elements
+     * of two arrays. Longer arrays are compared position by position.
+     */
+    static final int LCS_MAX = 1 << 18;
+
+    /** Operation codes, in the order of OPS. */
+    private static final int ADD = 0, REMOVE = 1, REPLACE = 2, MOVE = 3,
+            COPY = 4, TEST = 5;
+
+    /**
+     * The names of the operations.
+     */
+    private static final String[] OPS = {
+        "add", "remove", "replace", "move", "copy", "test"
+    };
+
+    /**
+     * One compiled operation.
+     */
+    private static final class Operation {
+        final int op;
+        final String path;
+        final JSONPointer pointer;
+        final String from;
+        final JSONPointer fromPointer;
+        final Object value;
+
+        Operation(int op, String path, String from, Object value) {
+            this.op = op;
+            this.path = path;
+            this.pointer = pointer(path);
+            this.from = from;
+            this.fromPointer = from == null ? null : pointer(from);
+            this.value = value;
+        }
+    }
+
+    /**
+     * Compile a path with only the escapes of RFC 6901, <code>~0</code> and
+     * <code>~1</code>, as other implementations write them.
+     * @throws IllegalArgumentException If the path is not empty and does not
+     *  start with <code>/</code>.
+     */
+    private static JSONPointer pointer(String path) {
+        JSONPointer.Builder builder = JSONPointer.builder();
+        if (path.length() > 0) {
+            if (path.charAt(0) != '/') {
+                throw new IllegalArgumentException(
+                        "a JSON pointer should start with '/'");
+            }
+            for (String token : path.substring(1).split("/", -1)) {
+                builder.append(token.replace("~1", "/").replace("~0", "~"));
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Escape a key for a path, as RFC 6901 does.
+     */
+    private static String escape(String key) {
+        return key.replace("~", "~0").replace("/", "~1");
+    }
+
+    /**
+     * The operations in order.
+     */
+    private final Operation[] operations;
+
+    /**
+     * Construct a JSONPatch from its JSON text.
+     * @param source A JSON array of operation objects.
+     * @throws JSONException If the text is not a valid patch.
+     */
+    public JSONPatch(String source) throws JSONException {
+        this(new JSONArray(source));
+    }
+
+    /**
+     * Construct a JSONPatch from a JSONArray of operation objects.
+     * @param patch The operations.
+     * @throws JSONException If an operation is not valid.
+     */
+    public JSONPatch(JSONArray patch) throws JSONException {
+        this.operations = new Operation[patch.length()];
+        for (int i = 0; i < this.operations.length; i += 1) {
+            JSONObject jo = patch.getJSONObject(i);
+            String name = jo.getString("op");
+            int op = 0;
+            while (op < OPS.length && !OPS[op].equals(name)) {
+                op += 1;
+            }
+            if (op == OPS.length) {
+                throw new JSONException("JSONPatch[" + i
+                        + "] has an unknown op " + JSONObject.quote(name) + ".");
+            }
+            Object value = null;
+            if (op == ADD || op == REPLACE || op == TEST) {
+                if (!jo.has("value")) {
+                    throw new JSONException("JSONPatch[" + i
+                            + "] has no value.");
+                }
+                value = jo.opt("value");
+            }
+            String from = op == MOVE || op == COPY ? jo.getString("from") : null;
+            try {
+                this.operations[i] = new Operation(op, jo.getString("path"),
+                        from, value);
+            } catch (IllegalArgumentException e) {
+                throw new JSONException("JSONPatch[" + i + "] has a bad path.", e);
+            }
+        }
+    }
+
+    private JSONPatch(List<Operation> operations) {
+        this.operations = operations.toArray(new Operation[operations.size()]);
+    }
+
+    /**
+     * Get the number of operations in the patch.
+     * @return The number of operations.
+     */
+    public int length() {
+        return this.operations.length;
+    }
+
+    /**
+     * Apply the patch to a document, changing it in place. The values that
+     * the patch adds are copied, so the patch itself is not changed.
+     * @param document A JSONObject or JSONArray.
+     * @return The patched document. It is the same object as
+     *  <code>document</code> unless an operation replaces the whole
+     *  document.
+     * @throws JSONException If an operation fails or a test does not hold.
+     *  The operations before it remain applied.
+     */
+    public Object apply(Object document) throws JSONException {
+        return this.apply(document, null);
+    }
+
+    /**
+     * Apply the patch to a copy of a document. Only the objects and arrays on
+     * the paths that the patch changes are copied; all else is shared with
+     * the document, so neither should be changed afterward in place.
+     * @param document A JSONObject or JSONArray, which is not changed.
+     * @return The patched document.
+     * @throws JSONException If an operation fails or a test does not hold.
+     */
+    public Object applyCopy(Object document) throws JSONException {
+        return this.apply(document, new IdentityHashMap<Object, Object>());
+    }
+
+    /**
+     * Apply the patch. If owned is not null, the patch is applied by copying
+     * on write, and owned holds the copies made so far, which may be changed.
+     */
+    private Object apply(Object document, Map<Object, Object> owned)
+            throws JSONException {
+        for (Operation operation : this.operations) {
+            Object value;
+            switch (operation.op) {
+            case ADD:
+                document = own(document, operation.pointer, owned);
+                document = put(document, operation.pointer,
+                        copyIn(operation.value, owned), true);
+                break;
+            case REMOVE:
+                if (operation.pointer.steps().length == 0) {
+                    throw new JSONPointerException(
+                            "the whole document cannot be removed");
+                }
+                document = own(document, operation.pointer, owned);
+                operation.pointer.remove(document);
+                break;
+            case REPLACE:
+                find(document, operation.pointer, operation.path);
+                document = own(document, operation.pointer, owned);
+                document = put(document, operation.pointer,
+                        copyIn(operation.value, owned), false);
+                break;
+            case MOVE:
+                if (operation.path.startsWith(operation.from + "/")) {
+                    throw new JSONPointerException("cannot move "
+                            + operation.from + " into its own child "
+                            + operation.path);
+                }
+                if (operation.path.equals(operation.from)) {
+                    find(document, operation.fromPointer, operation.from);
+                    break;
+                }
+                if (operation.fromPointer.steps().length == 0) {
+                    throw new JSONPointerException(
+                            "the whole document cannot be removed");
+                }
+                document = own(document, operation.fromPointer, owned);
+                value = operation.fromPointer.remove(document);
+                document = own(document, operation.pointer, owned);
+                document = put(document, operation.pointer, value, true);
+                break;
+            case COPY:
+
+// The value is copied in both modes: when copying on write it may be one of
+// the owned copies, which later operations are free to change.
+
+                value = find(document, operation.fromPointer, operation.from);
+                document = own(document, operation.pointer, owned);
+                document = put(document, operation.pointer, deepCopy(value),
+                        true);
+                break;
+            default:
+                if (!equal(find(document, operation.pointer, operation.path),
+                        operation.value)) {
+                    throw new JSONException("JSONPatch test failed at "
+                            + operation.path + ".");
+                }
+            }
+        }
+        return document;
+    }
+
+    /**
+     * Get the value at a pointer, which must exist.
+     */
+    private static Object find(Object document, JSONPointer pointer,
+            String path) throws JSONException {
+        Object value = pointer.queryFrom(document);
+        if (value == null) {
+            throw new JSONPointerException("path " + path + " not found");
+        }
+        return value;
+    }
+
+    /**
+     * Add or set a value at a pointer.
+     * @return The document, or the value if the pointer is empty.
+     */
+    private static Object put(Object document, JSONPointer pointer,
+            Object value, boolean add) throws JSONException {
+        if (pointer.steps().length == 0) {
+            return value;
+        }
+        if (add) {
+            pointer.add(document, value);
+        } else {
+            pointer.set(document, value);
+        }
+        return document;
+    }
+
+    /**
+     * Get the value to put into the document. When applying in place, the
+     * value is copied so that later operations cannot change the patch or
+     * the value's other place in the document. When copying on write, the
+     * value is not owned, so it will be copied if it is changed.
+     */
+    private static Object copyIn(Object value, Map<Object, Object> owned)
+            throws JSONException {
+        return owned == null ? deepCopy(value) : value;
+    }
+
+    /**
+     * Copy the objects and arrays from the root to the parent of a pointer's
+     * location that are not already owned, and put each copy in place of the
+     * original in its owned parent.
+     * @return The document, or its copy.
+     */
+    private static Object own(Object document, JSONPointer pointer,
+            Map<Object, Object> owned) throws JSONException {
+        JSONPointer.Step[] steps = pointer.steps();
+        if (owned == null || steps.length == 0) {
+            return document;
+        }
+        Object root = ownCopy(document, owned);
+        Object current = root;
+        for (int i = 0; i < steps.length - 1; i += 1) {
+            Object child = JSONPointer.child(current, steps[i]);
+            if (child == null) {
+                break;
+            }
+            Object copy = ownCopy(child, owned);
+            if (copy != child) {
+                JSONPointer.setChild(current, steps[i], copy);
+            }
+            current = copy;
+        }
+        return root;
+    }
+
+    /**
+     * Make a shallow copy of an object or array that is not owned.
+     */
+    private static Object ownCopy(Object value, Map<Object, Object> owned)
+            throws JSONException {
+        if (owned.containsKey(value)) {
+            return value;
+        }
+        Object copy;
+        if (value instanceof JSONObject) {
+            JSONObject jo = (JSONObject) value;
+            JSONObject result = new JSONObject();
+            for (String key : jo.keySet()) {
+                result.put(key, jo.opt(key));
+            }
+            copy = result;
+        } else if (value instanceof LazyJSONObject) {
+            LazyJSONObject lazy = (LazyJSONObject) value;
+            JSONObject result = new JSONObject();
+            for (String key : lazy.keySet()) {
+                result.put(key, lazy.opt(key));
+            }
+            copy = result;
+        } else if (value instanceof JSONArray) {
+            JSONArray ja = (JSONArray) value;
+            JSONArray result = new JSONArray();
+            for (int i = 0; i < ja.length(); i += 1) {
+                result.put(ja.opt(i));
+            }
+            copy = result;
+        } else if (value instanceof LazyJSONArray) {
+            LazyJSONArray lazy = (LazyJSONArray) value;
+            JSONArray result = new JSONArray();
+            for (int i = 0; i < lazy.length(); i += 1) {
+                result.put(lazy.opt(i));
+            }
+            copy = result;
+        } else {
+            return value;
+        }
+        owned.put(copy, copy);
+        return copy;
+    }
+
+    /**
+     * Make a deep copy of a value. Lazy values become JSONObjects and
+     * JSONArrays.
+     */
+    private static Object deepCopy(Object value) throws JSONException {
+        if (value instanceof JSONObject) {
+            JSONObject jo = (JSONObject) value;
+            JSONObject result = new JSONObject();
+            for (String key : jo.keySet()) {
+                result.put(key, deepCopy(jo.opt(key)));
+            }
+            return result;
+        }
+        if (value instanceof JSONArray) {
+            JSONArray ja = (JSONArray) value;
+            JSONArray result = new JSONArray();
+            for (int i = 0; i < ja.length(); i += 1) {
+                result.put(deepCopy(ja.opt(i)));
+            }
+            return result;
+        }
+        return LazyJSONObject.toPlain(value);
+    }
+
+    /**
+     * Determine if two values are equal as RFC 6902 defines for the test
+     * operation: numbers by their numeric value, objects by their members
+     * regardless of order, and arrays element by element.
+     * @param a A value.
+     * @param b Another value.
+     * @return true if they are equal.
+     * @throws JSONException If a lazy value has a syntax error.
+     */
+    static boolean equal(Object a, Object b) throws JSONException {
+        if (a == b) {
+            return true;
+        }
+        if (a == null || b == null) {
+            return false;
+        }
+        a = LazyJSONObject.toPlain(a);
+        b = LazyJSONObject.toPlain(b);
+        if (a instanceof Number && b instanceof Number) {
+            try {
+                return new BigDecimal(a.toString()).compareTo(
+                        new BigDecimal(b.toString())) == 0;
+            } catch (NumberFormatException e) {
+                return ((Number) a).doubleValue() == ((Number) b).doubleValue();
+            }
+        }
+        if (a instanceof JSONObject && b instanceof JSONObject) {
+            JSONObject ja = (JSONObject) a;
+            JSONObject jb = (JSONObject) b;
+            if (ja.length() != jb.length()) {
+                return false;
+            }
+            for (String key : ja.keySet()) {
+                if (!equal(ja.opt(key), jb.opt(key))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (a instanceof JSONArray && b instanceof JSONArray) {
+            JSONArray ja = (JSONArray) a;
+            JSONArray jb = (JSONArray) b;
+            if (ja.length() != jb.length()) {
+                return false;
+            }
+            for (int i = 0; i < ja.length(); i += 1) {
+                if (!equal(ja.opt(i), jb.opt(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return a.equals(b);
+    }
+
+    /**
+     * Make the patch that turns one document into another. The values in the
+     * patch are shared with <code>target</code>.
+     * @param source The document before.
+     * @param target The document after.
+     * @return A patch that, applied to <code>source</code>, gives a document
+     *  equal to <code>target</code>.
+     * @throws JSONException If a lazy value has a syntax error.
+     */
+    public static JSONPatch diff(Object source, Object target)
+            throws JSONException {
+        List<Operation> operations = new ArrayList<Operation>();
+        diff("", source, target, operations);
+        return new JSONPatch(operations);
+    }
+
+    private static void diff(String path, Object a, Object b,
+            List<Operation> operations) throws JSONException {
+        a = LazyJSONObject.toPlain(a);
+        b = LazyJSONObject.toPlain(b);
+        if (a instanceof JSONObject && b instanceof JSONObject) {
+            JSONObject ja = (JSONObject) a;
+            JSONObject jb = (JSONObject) b;
+            for (String key : ja.keySet()) {
+                String child = path + '/' + escape(key);
+                Object valueB = jb.opt(key);
+                if (valueB == null) {
+                    operations.add(new Operation(REMOVE, child, null, null));
+                } else {
+                    diff(child, ja.opt(key), valueB, operations);
+                }
+            }
+            for (String key : jb.keySet()) {
+                if (!ja.has(key)) {
+                    operations.add(new Operation(ADD,
+                            path + '/' + escape(key), null,
+                            jb.opt(key)));
+                }
+            }
+        } else if (a instanceof JSONArray && b instanceof JSONArray) {
+            diffArrays(path, (JSONArray) a, (JSONArray) b, operations);
+        } else if (!equal(a, b)) {
+            operations.add(new Operation(REPLACE, path, null, b));
+        }
+    }
+
+    /**
+     * Add the operations that turn one array into another. The common ends
+     * are skipped, and the elements between them are matched by their
+     * longest common subsequence if the table for it is not too large.
+     */
+    private static void diffArrays(String path, JSONArray a, JSONArray b,
+            List<Operation> operations) throws JSONException {
+        int lengthA = a.length();
+        int lengthB = b.length();
+        int prefix = 0;
+        while (prefix < lengthA && prefix < lengthB
+                && equal(a.opt(prefix), b.opt(prefix))) {
+            prefix += 1;
+        }
+        int suffix = 0;
+        while (suffix < lengthA - prefix && suffix < lengthB - prefix
+                && equal(a.opt(lengthA - 1 - suffix), b.opt(lengthB - 1 - suffix))) {
+            suffix += 1;
+        }
+        int n = lengthA - prefix - suffix;
+        int m = lengthB - prefix - suffix;
+        if ((long) (n + 1) * (m + 1) > LCS_MAX) {
+
+// Too long to match, so change the elements position by position, and
+// then remove or add the rest.
+
+            int common = Math.min(n, m);
+            for (int k = 0; k < common; k += 1) {
+                diff(path + '/' + (prefix + k), a.opt(prefix + k),
+                        b.opt(prefix + k), operations);
+            }
+            for (int k = common; k < n; k += 1) {
+                operations.add(new Operation(REMOVE,
+                        path + '/' + (prefix + common), null, null));
+            }
+            for (int k = common; k < m; k += 1) {
+                operations.add(new Operation(ADD, path + '/' + (prefix + k),
+                        null, b.opt(prefix + k)));
+            }
+            return;
+        }
+
+// lcs[i][j] is the length of the longest common subsequence of the
+// elements of a from i and of b from j.
+
+        int[][] lcs = new int[n + 1][m + 1];
+        for (int i = n - 1; i >= 0; i -= 1) {
+            for (int j = m - 1; j >= 0; j -= 1) {
+                lcs[i][j] = equal(a.opt(prefix + i), b.opt(prefix + j))
+                        ? lcs[i + 1][j + 1] + 1
+                        : Math.max(lcs[i + 1][j], lcs[i][j + 1]);
+            }
+        }
+        int i = 0;
+        int j = 0;
+        int index = prefix;
+        while (i < n || j < m) {
+            if (i < n && j < m) {
+                Object valueA = a.opt(prefix + i);
+                Object valueB = b.opt(prefix + j);
+                if (equal(valueA, valueB)) {
+                    i += 1;
+                    j += 1;
+                    index += 1;
+                    continue;
+                }
+                if (lcs[i][j] == lcs[i + 1][j + 1]) {
+                    diff(path + '/' + index, valueA, valueB, operations);
+                    i += 1;
+                    j += 1;
+                    index += 1;
+                    continue;
+                }
+            }
+            if (j < m && (i == n || lcs[i][j + 1] >= lcs[i + 1][j])) {
+                operations.add(new Operation(ADD, path + '/' + index, null,
+                        b.opt(prefix + j)));
+                j += 1;
+                index += 1;
+            } else {
+                operations.add(new Operation(REMOVE, path + '/' + index,
+                        null, null));
+                i += 1;
+            }
+        }
+    }
+
+    /**
+     * Make the JSON form of the patch.
+     * @return A JSONArray of operation objects.
+     */
+    public JSONArray toJSONArray() {
+        JSONArray ja = new JSONArray();
+        for (Operation operation : this.operations) {
+            JSONObject jo = new JSONObject();
+            jo.put("op", OPS[operation.op]);
+            jo.put("path", operation.path);
+            if (operation.from != null) {
+                jo.put("from", operation.from);
+            }
+            if (operation.op == ADD || operation.op == REPLACE
+                    || operation.op == TEST) {
+                jo.put("value", operation.value);
+            }
+            ja.put(jo);
+        }
+        return ja;
+    }
+
+    /**
+     * Make the JSON text of the patch.
+     * @return A JSON array of operation objects.
+     */
+    @Override
+    public String toString() {
+        return this.toJSONArray().toString();
+    }
+}
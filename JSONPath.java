@@ -0,0 +1,985 @@
+package org.json;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/*
+Copyright (c) 2002 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+/**
+ * A JSONPath selects any number of values from a JSON document, where a
+ * {@link JSONPointer} addresses only one. The path is compiled once into a
+ * plan of steps, which can then be run against any number of documents.
+ * The forms accepted are those of the usual JSONPath notation:
+ * <pre>
+ * $                 the document
+ * .name  ['name']   the member of an object with that name
+ * .*  [*]           every member of an object or element of an array
+ * [2]  [-1]         an element of an array, counting from the end if negative
+ * [1:5]  [::2]      a slice of an array, start:end:step as in Python
+ * ['a','b']  [0,3]  a union of names or indexes
+ * ..name  ..*       the step applied to a value and all of its descendants
+ * [?(@.price &lt; 10)] the members or elements for which the predicate holds
+ * </pre>
+ * A predicate compares <code>@</code>, or a path such as
+ * <code>@.a.b[0]</code> below it, with another path or with a string,
+ * number, <code>true</code>, <code>false</code> or <code>null</code>, using
+ * <code>== != &lt; &lt;= &gt; &gt;=</code>. Comparisons can be combined with
+ * <code>&amp;&amp;</code>, <code>||</code>, <code>!</code> and parentheses,
+ * and a path alone tests that the value exists. A comparison with a value
+ * that does not exist is false.
+ * <p>
+ * The plan runs directly over JSONObject, JSONArray, LazyJSONObject and
+ * LazyJSONArray trees, carrying each value on to the next step without
+ * collecting the values of the steps in between. A step that does not fit
+ * the value it meets, such as a name applied to an array, selects nothing.
+ * A JSONPath is immutable, and may be shared between threads.
+ * @author JSON.org
+ * @version 2016-08-04
+ */
+public class JSONPath {
+
+    /**
+     * The paths made by compile, by path string.
+     */
+    private static final BoundedCache<String, JSONPath> CACHE =
+            new BoundedCache<String, JSONPath>(256);
+
+    /**
+     * The fewest array elements that are worth visiting in parallel.
+     */
+    static final int PARALLEL_MIN = 1 << 11;
+
+    /**
+     * The number of array elements visited by each parallel task.
+     */
+    static final int PART = 1 << 9;
+
+    /** Comparison operators. */
+    private static final int EQ = 0, NE = 1, LT = 2, LE = 3, GT = 4, GE = 5;
+
+    /**
+     * The text of the path.
+     */
+    private final String path;
+
+    /**
+     * The compiled plan.
+     */
+    private final Step[] steps;
+
+    /**
+     * Compile a JSONPath. If the same path is used many times, either keep
+     * the JSONPath or use {@link #compile(String)}.
+     * @param path The text of the path, starting with <code>$</code>.
+     * @throws IllegalArgumentException If the path is not valid.
+     */
+    public JSONPath(String path) {
+        if (path == null) {
+            throw new NullPointerException("path cannot be null");
+        }
+        this.path = path;
+        this.steps = new Parser(path).parsePath();
+    }
+
+    /**
+     * Returns the {@code JSONPath} for a path string, reusing the one
+     * compiled for an earlier call with the same string if it is still in
+     * the cache.
+     * @param path The text of the path, starting with <code>$</code>.
+     * @return The compiled path.
+     * @throws IllegalArgumentException If the path is not valid.
+     */
+    public static JSONPath compile(String path) {
+        JSONPath result = CACHE.get(path);
+        if (result == null) {
+            result = new JSONPath(path);
+            CACHE.put(path, result);
+        }
+        return result;
+    }
+
+    /**
+     * Select the values that the path matches in a document.
+     * @param document A JSONObject, JSONArray, LazyJSONObject, LazyJSONArray,
+     *  or JSON value.
+     * @return A JSONArray of the matched values in document order. It is
+     *  empty if nothing matches.
+     * @throws JSONException If a lazy value cannot be parsed.
+     */
+    public JSONArray queryFrom(Object document) throws JSONException {
+        Run run = new Run(this.steps, 0, null);
+        run.visit(document, 0);
+        return run.results;
+    }
+
+    /**
+     * Select the values that the path matches in a document, visiting the
+     * elements of wide arrays in parallel. The result is the same as that of
+     * {@link #queryFrom(Object)}.
+     * @param document A JSONObject, JSONArray, LazyJSONObject, LazyJSONArray,
+     *  or JSON value.
+     * @param executor The executor to run the parallel tasks on.
+     * @return A JSONArray of the matched values in document order.
+     * @throws JSONException If a lazy value cannot be parsed, or if the query
+     *  is interrupted.
+     */
+    public JSONArray queryFrom(Object document, ExecutorService executor)
+            throws JSONException {
+        Run run = new Run(this.steps, 0, executor);
+        run.visit(document, 0);
+        return run.results;
+    }
+
+    /**
+     * Get the first value that the path matches in a document. The walk
+     * stops as soon as it is found.
+     * @param document A JSONObject, JSONArray, LazyJSONObject, LazyJSONArray,
+     *  or JSON value.
+     * @return The value, or null if nothing matches.
+     * @throws JSONException If a lazy value cannot be parsed.
+     */
+    public Object queryFirst(Object document) throws JSONException {
+        Run run = new Run(this.steps, 1, null);
+        run.visit(document, 0);
+        return run.results.length() == 0 ? null : run.results.opt(0);
+    }
+
+    /**
+     * Returns the text of the path.
+     */
+    @Override
+    public String toString() {
+        return this.path;
+    }
+
+    /**
+     * Determine if a value is a JSONArray or a LazyJSONArray.
+     */
+    static boolean isArray(Object value) {
+        return value instanceof JSONArray || value instanceof LazyJSONArray;
+    }
+
+    /**
+     * Get the length of a JSONArray or a LazyJSONArray.
+     */
+    static int length(Object array) {
+        return array instanceof JSONArray
+                ? ((JSONArray) array).length()
+                : ((LazyJSONArray) array).length();
+    }
+
+    /**
+     * Get an element of a JSONArray or a LazyJSONArray.
+     */
+    static Object element(Object array, int index) throws JSONException {
+        return array instanceof JSONArray
+                ? ((JSONArray) array).opt(index)
+                : ((LazyJSONArray) array).opt(index);
+    }
+
+    /**
+     * Get a member of a JSONObject or a LazyJSONObject.
+     * @return The value, or null if there is no such member or the value is
+     *  not an object.
+     */
+    static Object member(Object object, String key) throws JSONException {
+        if (object instanceof JSONObject) {
+            return ((JSONObject) object).opt(key);
+        }
+        if (object instanceof LazyJSONObject) {
+            return ((LazyJSONObject) object).opt(key);
+        }
+        return null;
+    }
+
+    /**
+     * One step of a plan. A step selects some of the members or elements of
+     * a value and passes each of them on to the next step.
+     */
+    private static abstract class Step {
+
+        /**
+         * true if the step is also applied to every descendant.
+         */
+        boolean recursive;
+
+        /**
+         * Apply the step to a value.
+         * @param value The value.
+         * @param run The run of the plan.
+         * @param next The index of the step that the selected values go to.
+         * @return true if the run has found all it needs.
+         */
+        abstract boolean apply(Object value, Run run, int next)
+                throws JSONException;
+    }
+
+    /**
+     * A member of an object.
+     */
+    private static final class Name extends Step {
+        private final String name;
+
+        Name(String name) {
+            this.name = name;
+        }
+
+        @Override
+        boolean apply(Object value, Run run, int next) throws JSONException {
+            Object child = member(value, this.name);
+            return child != null && run.visit(child, next);
+        }
+    }
+
+    /**
+     * Every member of an object or element of an array.
+     */
+    private static final class Wildcard extends Step {
+        @Override
+        boolean apply(Object value, Run run, int next) throws JSONException {
+            if (isArray(value)) {
+                return run.elements(value, 0, length(value), 1, next, null);
+            }
+            return run.members(value, next, null);
+        }
+    }
+
+    /**
+     * An element of an array.
+     */
+    private static final class Index extends Step {
+        private final int index;
+
+        Index(int index) {
+            this.index = index;
+        }
+
+        @Override
+        boolean apply(Object value, Run run, int next) throws JSONException {
+            if (!isArray(value)) {
+                return false;
+            }
+            int length = length(value);
+            int i = this.index < 0 ? this.index + length : this.index;
+            return i >= 0 && i < length && run.visit(element(value, i), next);
+        }
+    }
+
+    /**
+     * A slice of an array.
+     */
+    private static final class Slice extends Step {
+        private final Integer start;
+        private final Integer end;
+        private final int by;
+
+        Slice(Integer start, Integer end, int by) {
+            this.start = start;
+            this.end = end;
+            this.by = by;
+        }
+
+        @Override
+        boolean apply(Object value, Run run, int next) throws JSONException {
+            if (!isArray(value)) {
+                return false;
+            }
+            int length = length(value);
+            int from;
+            int to;
+            if (this.by > 0) {
+                from = bound(this.start, 0, length, 0, length);
+                to = bound(this.end, length, length, 0, length);
+            } else {
+                from = bound(this.start, length - 1, length, -1, length - 1);
+                to = bound(this.end, -1, length, -1, length - 1);
+            }
+            return run.elements(value, from, to, this.by, next, null);
+        }
+
+        private static int bound(Integer index, int missing, int length,
+                int low, int high) {
+            if (index == null) {
+                return missing;
+            }
+            int i = index.intValue();
+            if (i < 0) {
+                i += length;
+            }
+            return i < low ? low : i > high ? high : i;
+        }
+    }
+
+    /**
+     * Several names, indexes or slices, applied in turn.
+     */
+    private static final class Union extends Step {
+        private final Step[] steps;
+
+        Union(Step[] steps) {
+            this.steps = steps;
+        }
+
+        @Override
+        boolean apply(Object value, Run run, int next) throws JSONException {
+            for (Step step : this.steps) {
+                if (step.apply(value, run, next)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * The members or elements for which a predicate holds.
+     */
+    private static final class Filter extends Step {
+        private final Condition condition;
+
+        Filter(Condition condition) {
+            this.condition = condition;
+        }
+
+        @Override
+        boolean apply(Object value, Run run, int next) throws JSONException {
+            if (isArray(value)) {
+                return run.elements(value, 0, length(value), 1, next,
+                        this.condition);
+            }
+            return run.members(value, next, this.condition);
+        }
+    }
+
+    /**
+     * One run of a plan against a document.
+     */
+    private static final class Run {
+        private final Step[] steps;
+
+        /**
+         * The number of results wanted, or 0 for all of them.
+         */
+        private final int limit;
+
+        /**
+         * The executor for wide arrays, or null.
+         */
+        private final ExecutorService executor;
+
+        /**
+         * The values selected by the last step.
+         */
+        final JSONArray results = new JSONArray();
+
+        Run(Step[] steps, int limit, ExecutorService executor) {
+            this.steps = steps;
+            this.limit = limit;
+            this.executor = limit == 0 ? executor : null;
+        }
+
+        /**
+         * Pass a value to a step.
+         * @return true if the run has found all it needs.
+         */
+        boolean visit(Object value, int index) throws JSONException {
+            if (index == this.steps.length) {
+                this.results.put(value);
+                return this.limit > 0 && this.results.length() >= this.limit;
+            }
+            Step step = this.steps[index];
+            if (step.apply(value, this, index + 1)) {
+                return true;
+            }
+            if (step.recursive) {
+                if (isArray(value)) {
+                    return this.elements(value, 0, length(value), 1, index, null);
+                }
+                return this.members(value, index, null);
+            }
+            return false;
+        }
+
+        /**
+         * Pass the members of an object for which a condition holds to a step.
+         */
+        boolean members(Object object, int next, Condition condition)
+                throws JSONException {
+            if (object instanceof JSONObject) {
+                JSONObject jo = (JSONObject) object;
+                for (String key : jo.keySet()) {
+                    Object child = jo.opt(key);
+                    if ((condition == null || condition.test(child))
+                            && this.visit(child, next)) {
+                        return true;
+                    }
+                }
+            } else if (object instanceof LazyJSONObject) {
+                LazyJSONObject lazy = (LazyJSONObject) object;
+                for (String key : lazy.keySet()) {
+                    Object child = lazy.opt(key);
+                    if ((condition == null || condition.test(child))
+                            && this.visit(child, next)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Pass the elements of an array from start, stepping by by, up to but
+         * not including end, for which a condition holds to a step.
+         */
+        boolean elements(Object array, int start, int end, int by, int next,
+                Condition condition) throws JSONException {
+            int count = by > 0
+                    ? (end - start + by - 1) / by
+                    : (start - end - by - 1) / -by;
+            if (count <= 0) {
+                return false;
+            }
+            if (this.executor != null && count >= PARALLEL_MIN) {
+                this.parallel(array, start, count, by, next, condition);
+                return false;
+            }
+            for (int i = start; by > 0 ? i < end : i > end; i += by) {
+                Object child = element(array, i);
+                if ((condition == null || condition.test(child))
+                        && this.visit(child, next)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Visit count elements of a wide array in parts on the executor, and
+         * add the results of the parts in order.
+         */
+        private void parallel(final Object array, final int start, int count,
+                final int by, final int next, final Condition condition)
+                throws JSONException {
+            List<Future<JSONArray>> futures = new ArrayList<Future<JSONArray>>();
+            for (int first = 0; first < count; first += PART) {
+                final int from = start + first * by;
+                final int to = start + Math.min(first + PART, count) * by;
+                futures.add(this.executor.submit(new Callable<JSONArray>() {
+                    @Override
+                    public JSONArray call() throws JSONException {
+                        Run part = new Run(Run.this.steps, 0, null);
+                        part.elements(array, from, to, by, next, condition);
+                        return part.results;
+                    }
+                }));
+            }
+            try {
+                for (Future<JSONArray> future : futures) {
+                    JSONArray part = future.get();
+                    for (int i = 0; i < part.length(); i += 1) {
+                        this.results.put(part.opt(i));
+                    }
+                }
+            } catch (InterruptedException exception) {
+                for (Future<JSONArray> future : futures) {
+                    future.cancel(true);
+                }
+                Thread.currentThread().interrupt();
+                throw new JSONException(exception);
+            } catch (ExecutionException exception) {
+                for (Future<JSONArray> future : futures) {
+                    future.cancel(true);
+                }
+                if (exception.getCause() instanceof JSONException) {
+                    throw (JSONException) exception.getCause();
+                }
+                throw new JSONException(exception.getCause());
+            }
+        }
+    }
+
+    /**
+     * A predicate of a filter.
+     */
+    private static abstract class Condition {
+        abstract boolean test(Object value) throws JSONException;
+    }
+
+    /**
+     * A comparison of two operands.
+     */
+    private static final class Compare extends Condition {
+        private final Operand left;
+        private final int op;
+        private final Operand right;
+
+        Compare(Operand left, int op, Operand right) {
+            this.left = left;
+            this.op = op;
+            this.right = right;
+        }
+
+        @Override
+        boolean test(Object value) throws JSONException {
+            Object a = this.left.value(value);
+            Object b = this.right.value(value);
+            if (a == null || b == null) {
+                return false;
+            }
+            int c;
+            if (a instanceof Number && b instanceof Number) {
+                c = compareNumbers((Number) a, (Number) b);
+            } else if (a instanceof String && b instanceof String) {
+                c = ((String) a).compareTo((String) b);
+            } else {
+                boolean equal = a instanceof JSONObject
+                        ? b instanceof JSONObject && ((JSONObject) a).similar(b)
+                        : a instanceof JSONArray
+                        ? b instanceof JSONArray && ((JSONArray) a).similar(b)
+                        : a.equals(b);
+                return this.op == EQ ? equal : this.op == NE && !equal;
+            }
+            switch (this.op) {
+            case EQ:
+                return c == 0;
+            case NE:
+                return c != 0;
+            case LT:
+                return c < 0;
+            case LE:
+                return c <= 0;
+            case GT:
+                return c > 0;
+            default:
+                return c >= 0;
+            }
+        }
+
+        private static int compareNumbers(Number a, Number b) {
+            if (isIntegral(a) && isIntegral(b)) {
+                long x = a.longValue();
+                long y = b.longValue();
+                return x < y ? -1 : x == y ? 0 : 1;
+            }
+            if (a instanceof BigDecimal || b instanceof BigDecimal
+                    || a instanceof BigInteger || b instanceof BigInteger) {
+                try {
+                    return new BigDecimal(a.toString()).compareTo(
+                            new BigDecimal(b.toString()));
+                } catch (NumberFormatException ignore) {
+                }
+            }
+            return Double.compare(a.doubleValue(), b.doubleValue());
+        }
+
+        private static boolean isIntegral(Number n) {
+            return n instanceof Integer || n instanceof Long
+                    || n instanceof Short || n instanceof Byte;
+        }
+    }
+
+    /**
+     * A test that a path exists.
+     */
+    private static final class Exists extends Condition {
+        private final Operand path;
+
+        Exists(Operand path) {
+            this.path = path;
+        }
+
+        @Override
+        boolean test(Object value) throws JSONException {
+            return this.path.value(value) != null;
+        }
+    }
+
+    /**
+     * The negation of a condition.
+     */
+    private static final class Not extends Condition {
+        private final Condition condition;
+
+        Not(Condition condition) {
+            this.condition = condition;
+        }
+
+        @Override
+        boolean test(Object value) throws JSONException {
+            return !this.condition.test(value);
+        }
+    }
+
+    /**
+     * Two conditions joined by <code>&amp;&amp;</code> or <code>||</code>.
+     */
+    private static final class Join extends Condition {
+        private final Condition left;
+        private final boolean and;
+        private final Condition right;
+
+        Join(Condition left, boolean and, Condition right) {
+            this.left = left;
+            this.and = and;
+            this.right = right;
+        }
+
+        @Override
+        boolean test(Object value) throws JSONException {
+            return this.and
+                    ? this.left.test(value) && this.right.test(value)
+                    : this.left.test(value) || this.right.test(value);
+        }
+    }
+
+    /**
+     * An operand of a comparison: a literal, or a path from <code>@</code>
+     * made of names (Strings) and indexes (Integers).
+     */
+    private static final class Operand {
+        private final Object literal;
+        private final Object[] path;
+
+        Operand(Object literal, Object[] path) {
+            this.literal = literal;
+            this.path = path;
+        }
+
+        Object value(Object current) throws JSONException {
+            if (this.path == null) {
+                return this.literal;
+            }
+            Object value = current;
+            for (int i = 0; i < this.path.length && value != null; i += 1) {
+                Object segment = this.path[i];
+                if (segment instanceof String) {
+                    value = member(value, (String) segment);
+                } else if (isArray(value)) {
+                    int length = length(value);
+                    int index = ((Integer) segment).intValue();
+                    if (index < 0) {
+                        index += length;
+                    }
+                    value = index >= 0 && index < length
+                            ? element(value, index)
+                            : null;
+                } else {
+                    value = null;
+                }
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Compiles the text of a path into a plan.
+     */
+    private static final class Parser {
+        private final String text;
+        private final char[] chars;
+        private int pos;
+
+        Parser(String text) {
+            this.text = text;
+            this.chars = text.toCharArray();
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at " + this.pos
+                    + " in JSONPath " + this.text);
+        }
+
+        private boolean more() {
+            return this.pos < this.chars.length;
+        }
+
+        private char peek() {
+            return this.more() ? this.chars[this.pos] : 0;
+        }
+
+        private boolean eat(char c) {
+            if (this.peek() == c) {
+                this.pos += 1;
+                return true;
+            }
+            return false;
+        }
+
+        private boolean eat(String s) {
+            if (this.text.startsWith(s, this.pos)) {
+                this.pos += s.length();
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char c) {
+            if (!this.eat(c)) {
+                throw this.error("Expected '" + c + "'");
+            }
+        }
+
+        private void white() {
+            while (this.more() && this.chars[this.pos] <= ' ') {
+                this.pos += 1;
+            }
+        }
+
+        Step[] parsePath() {
+            if (!this.eat('$')) {
+                throw this.error("Expected '$'");
+            }
+            List<Step> steps = new ArrayList<Step>();
+            while (this.more()) {
+                Step step;
+                if (this.eat('.')) {
+                    boolean recursive = this.eat('.');
+                    if (recursive && this.peek() == '[') {
+                        step = this.bracket();
+                    } else if (this.eat('*')) {
+                        step = new Wildcard();
+                    } else {
+                        step = new Name(this.name(".["));
+                    }
+                    step.recursive = recursive;
+                } else if (this.peek() == '[') {
+                    step = this.bracket();
+                } else {
+                    throw this.error("Expected '.' or '['");
+                }
+                steps.add(step);
+            }
+            return steps.toArray(new Step[steps.size()]);
+        }
+
+        /**
+         * Read a name up to one of the stop characters, whitespace, or the
+         * end of the text.
+         */
+        private String name(String stop) {
+            int start = this.pos;
+            while (this.more() && this.chars[this.pos] > ' '
+                    && stop.indexOf(this.chars[this.pos]) < 0) {
+                this.pos += 1;
+            }
+            if (this.pos == start) {
+                throw this.error("Expected a name");
+            }
+            return this.text.substring(start, this.pos);
+        }
+
+        private String string() {
+            char quote = this.chars[this.pos];
+            JSONTokener x = new JSONTokener(this.chars, this.pos + 1,
+                    this.chars.length);
+            try {
+                String string = x.nextString(quote);
+                this.pos = x.offset();
+                return string;
+            } catch (JSONException e) {
+                throw this.error("Unterminated string");
+            }
+        }
+
+        private Integer integer() {
+            int start = this.pos;
+            this.eat('-');
+            while (this.peek() >= '0' && this.peek() <= '9') {
+                this.pos += 1;
+            }
+            if (this.pos == start) {
+                return null;
+            }
+            try {
+                return Integer.valueOf(this.text.substring(start, this.pos));
+            } catch (NumberFormatException e) {
+                this.pos = start;
+                throw this.error("Expected an index");
+            }
+        }
+
+        private Step bracket() {
+            this.expect('[');
+            this.white();
+            Step step;
+            if (this.eat('*')) {
+                step = new Wildcard();
+            } else if (this.eat('?')) {
+                this.white();
+                this.expect('(');
+                Condition condition = this.or();
+                this.white();
+                this.expect(')');
+                step = new Filter(condition);
+            } else {
+                List<Step> items = new ArrayList<Step>();
+                do {
+                    this.white();
+                    items.add(this.item());
+                    this.white();
+                } while (this.eat(','));
+                step = items.size() == 1
+                        ? items.get(0)
+                        : new Union(items.toArray(new Step[items.size()]));
+            }
+            this.white();
+            this.expect(']');
+            return step;
+        }
+
+        private Step item() {
+            char c = this.peek();
+            if (c == '\'' || c == '"') {
+                return new Name(this.string());
+            }
+            Integer start = this.integer();
+            if (!this.eat(':')) {
+                if (start == null) {
+                    throw this.error("Expected a name, index or slice");
+                }
+                return new Index(start.intValue());
+            }
+            Integer end = this.integer();
+            int by = 1;
+            if (this.eat(':')) {
+                Integer step = this.integer();
+                if (step != null) {
+                    if (step.intValue() == 0) {
+                        throw this.error("Slice step cannot be 0");
+                    }
+                    by = step.intValue();
+                }
+            }
+            return new Slice(start, end, by);
+        }
+
+        private Condition or() {
+            Condition condition = this.and();
+            for (;;) {
+                this.white();
+                if (!this.eat("||")) {
+                    return condition;
+                }
+                condition = new Join(condition, false, this.and());
+            }
+        }
+
+        private Condition and() {
+            Condition condition = this.unary();
+            for (;;) {
+                this.white();
+                if (!this.eat("&&")) {
+                    return condition;
+                }
+                condition = new Join(condition, true, this.unary());
+            }
+        }
+
+        private Condition unary() {
+            this.white();
+            if (this.eat('(')) {
+                Condition condition = this.or();
+                this.white();
+                this.expect(')');
+                return condition;
+            }
+            if (this.peek() == '!' && !this.text.startsWith("!=", this.pos)) {
+                this.pos += 1;
+                return new Not(this.unary());
+            }
+            Operand left = this.operand();
+            this.white();
+            int op;
+            if (this.eat("==")) {
+                op = EQ;
+            } else if (this.eat("!=")) {
+                op = NE;
+            } else if (this.eat("<=")) {
+                op = LE;
+            } else if (this.eat(">=")) {
+                op = GE;
+            } else if (this.eat('<')) {
+                op = LT;
+            } else if (this.eat('>')) {
+                op = GT;
+            } else {
+                if (left.path == null) {
+                    throw this.error("Expected a comparison");
+                }
+                return new Exists(left);
+            }
+            this.white();
+            return new Compare(left, op, this.operand());
+        }
+
+        private Operand operand() {
+            this.white();
+            char c = this.peek();
+            if (c == '@') {
+                this.pos += 1;
+                List<Object> path = new ArrayList<Object>();
+                for (;;) {
+                    if (this.eat('.')) {
+                        path.add(this.name(".[()=!<>&|,]"));
+                    } else if (this.eat('[')) {
+                        this.white();
+                        c = this.peek();
+                        if (c == '\'' || c == '"') {
+                            path.add(this.string());
+                        } else {
+                            Integer index = this.integer();
+                            if (index == null) {
+                                throw this.error("Expected a name or index");
+                            }
+                            path.add(index);
+                        }
+                        this.white();
+                        this.expect(']');
+                    } else {
+                        return new Operand(null, path.toArray());
+                    }
+                }
+            }
+            if (c == '\'' || c == '"') {
+                return new Operand(this.string(), null);
+            }
+            if (!this.more() || "()=!<>&|,]".indexOf(c) >= 0) {
+                throw this.error("Expected a value");
+            }
+            String token = this.name("()=!<>&|,]");
+            Object value = JSONObject.stringToValue(token);
+            if (value instanceof String) {
+                throw this.error("Expected a value");
+            }
+            return new Operand(value, null);
+        }
+    }
+}
@@ -123,9 +123,43 @@ public class JSONPointer {
         return new Builder();
     }
 
+    /**
+     * One step of a compiled pointer: the token, which is the key to look up
+     * in an object, and, if the token is a number, the index to take from an
+     * array. The token has already been unescaped.
+     */
+    static final class Step {
+        final String token;
+        final int index;
+        final boolean isIndex;
+
+        Step(String token) {
+            this.token = token;
+            int index = 0;
+            boolean isIndex;
+            try {
+                index = Integer.parseInt(token);
+                isIndex = true;
+            } catch (NumberFormatException e) {
+                isIndex = false;
+            }
+            this.index = index;
+            this.isIndex = isIndex;
+        }
+    }
+
+    /**
+     * The pointers made by cached, by pointer string.
+     */
+    private static final BoundedCache<String, JSONPointer> CACHE =
+            new BoundedCache<String, JSONPointer>(256);
+
     // Segments for the JSONPointer string
     private final List<String> refTokens;
 
+    // The segments, compiled for queryFrom
+    private final Step[] steps;
+
     /**
      * Pre-parses and initializes a new {@code JSONPointer} instance. If you want to
      * evaluate the same JSON Pointer on different JSON documents then it is recommended
@@ -140,6 +174,7 @@ public class JSONPointer {
         }
         if (pointer.isEmpty()) {
             refTokens = Collections.emptyList();
+            steps = new Step[0];
             return;
         }
         if (pointer.startsWith("#/")) {
@@ -158,10 +193,46 @@ public class JSONPointer {
         for (String token : pointer.split("/")) {
             refTokens.add(unescape(token));
         }
+        steps = compile(refTokens);
     }
 
     public JSONPointer(List<String> refTokens) {
         this.refTokens = new ArrayList<String>(refTokens);
+        this.steps = compile(this.refTokens);
+    }
+
+    /**
+     * Returns the {@code JSONPointer} for a pointer string, reusing the one
+     * made for an earlier call with the same string if it is still in the
+     * cache. A pointer is immutable, so one instance can serve every caller.
+     * 
+     * @param pointer the JSON String or URI Fragment representation of the JSON pointer.
+     * @return the pointer
+     * @throws IllegalArgumentException if {@code pointer} is not a valid JSON pointer
+     */
+    static JSONPointer cached(String pointer) {
+        JSONPointer result = CACHE.get(pointer);
+        if (result == null) {
+            result = new JSONPointer(pointer);
+            CACHE.put(pointer, result);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the compiled steps of this pointer. The array is shared and
+     * must not be changed.
+     */
+    Step[] steps() {
+        return steps;
+    }
+
+    private static Step[] compile(List<String> refTokens) {
+        Step[] steps = new Step[refTokens.size()];
+        for (int i = 0; i < steps.length; i += 1) {
+            steps[i] = new Step(refTokens.get(i));
+        }
+        return steps;
     }
 
     private String unescape(String token) {
@@ -181,19 +252,20 @@ public class JSONPointer {
      * @throws JSONPointerException if an error occurs during evaluation
      */
     public Object queryFrom(Object document) {
-        if (refTokens.isEmpty()) {
-            return document;
-        }
         Object current = document;
-        for (String token : refTokens) {
+        for (Step step : steps) {
             if (current instanceof JSONObject) {
-                current = ((JSONObject) current).opt(unescape(token));
+                current = ((JSONObject) current).opt(step.token);
             } else if (current instanceof JSONArray) {
-                current = readByIndexToken(current, token);
+                current = readByIndexToken(current, step);
+            } else if (current instanceof LazyJSONObject) {
+                current = ((LazyJSONObject) current).opt(step.token);
+            } else if (current instanceof LazyJSONArray) {
+                current = readByIndexToken(current, step);
             } else {
                 throw new JSONPointerException(format(
                         "value [%s] is not an array or object therefore its key %s cannot be resolved", current,
-                        token));
+                        step.token));
             }
         }
         return current;
@@ -201,23 +273,260 @@ public class JSONPointer {
 
     /**
      * Matches a JSONArray element by ordinal position
-     * @param current the JSONArray to be evaluated
-     * @param indexToken the array index in string form
+     * @param current the JSONArray or LazyJSONArray to be evaluated
+     * @param step the step holding the array index
      * @return the matched object. If no matching item is found a
      * JSONPointerException is thrown
      */
-    private Object readByIndexToken(Object current, String indexToken) {
-        try {
-            int index = Integer.parseInt(indexToken);
-            JSONArray currentArr = (JSONArray) current;
-            if (index >= currentArr.length()) {
-                throw new JSONPointerException(format("index %d is out of bounds - the array has %d elements", index,
-                        currentArr.length()));
+    private Object readByIndexToken(Object current, Step step) {
+        if (!step.isIndex) {
+            throw new JSONPointerException(format("%s is not an array index", step.token));
+        }
+        int index = step.index;
+        int length = current instanceof LazyJSONArray
+                ? ((LazyJSONArray) current).length()
+                : ((JSONArray) current).length();
+        if (index >= length) {
+            throw new JSONPointerException(format("index %d is out of bounds - the array has %d elements", index,
+                    length));
+        }
+        return current instanceof LazyJSONArray
+                ? ((LazyJSONArray) current).get(index)
+                : ((JSONArray) current).get(index);
+    }
+
+    /**
+     * Sets the value at the location of this pointer in {@code document},
+     * replacing the value that is already there. The parent of the location
+     * must exist. In an array the last token may be {@code "-"} or the
+     * array's length, which append the value. A null value is stored as
+     * {@link JSONObject#NULL}.
+     * 
+     * @param document the JSON document to be changed
+     * @param value the new value
+     * @return the value that was replaced, or null if there was none
+     * @throws JSONPointerException if the parent cannot be found, or the
+     *         pointer is empty
+     */
+    public Object set(Object document, Object value) {
+        return set(document, value, false);
+    }
+
+    /**
+     * Sets the value at the location of this pointer in {@code document},
+     * replacing the value that is already there. The path is resolved once,
+     * and if {@code createMissing} is true then the containers missing along
+     * it are made: a {@link JSONArray} when the token after them is
+     * {@code "-"} or {@code "0"}, and a {@link JSONObject} otherwise.
+     * 
+     * @param document the JSON document to be changed
+     * @param value the new value
+     * @param createMissing true to make missing containers on the path
+     * @return the value that was replaced, or null if there was none
+     * @throws JSONPointerException if the parent cannot be found, or the
+     *         pointer is empty
+     */
+    public Object set(Object document, Object value, boolean createMissing) {
+        Object parent = parentFrom(document, createMissing);
+        return setChild(parent, steps[steps.length - 1], value);
+    }
+
+    /**
+     * Adds a value at the location of this pointer in {@code document}, as
+     * the JSON Patch "add" operation does: in an object the member is set,
+     * and in an array the value is inserted before the element at the index,
+     * or appended if the last token is {@code "-"} or the array's length.
+     * 
+     * @param document the JSON document to be changed
+     * @param value the value to add
+     * @throws JSONPointerException if the parent cannot be found, or the
+     *         pointer is empty
+     */
+    public void add(Object document, Object value) {
+        add(document, value, false);
+    }
+
+    /**
+     * Adds a value at the location of this pointer in {@code document},
+     * making the containers missing along the path if {@code createMissing}
+     * is true, as {@link #set(Object, Object, boolean)} does.
+     * 
+     * @param document the JSON document to be changed
+     * @param value the value to add
+     * @param createMissing true to make missing containers on the path
+     * @throws JSONPointerException if the parent cannot be found, or the
+     *         pointer is empty
+     */
+    public void add(Object document, Object value, boolean createMissing) {
+        Object parent = parentFrom(document, createMissing);
+        Step step = steps[steps.length - 1];
+        if (parent instanceof JSONArray || parent instanceof LazyJSONArray) {
+            int length = length(parent);
+            int index = "-".equals(step.token) ? length : arrayIndex(step, length);
+            Object stored = value == null ? JSONObject.NULL : value;
+            if (parent instanceof JSONArray) {
+                ((JSONArray) parent).insert(index, stored);
+            } else {
+                ((LazyJSONArray) parent).insert(index, stored);
             }
-            return currentArr.get(index);
-        } catch (NumberFormatException e) {
-            throw new JSONPointerException(format("%s is not an array index", indexToken), e);
+        } else {
+            setChild(parent, step, value);
+        }
+    }
+
+    /**
+     * Removes the value at the location of this pointer from
+     * {@code document}. In an array the later elements move down.
+     * 
+     * @param document the JSON document to be changed
+     * @return the value that was removed
+     * @throws JSONPointerException if there is no value at the location, or
+     *         the pointer is empty
+     */
+    public Object remove(Object document) {
+        Object parent = parentFrom(document, false);
+        Step step = steps[steps.length - 1];
+        Object removed;
+        if (parent instanceof JSONArray || parent instanceof LazyJSONArray) {
+            int length = length(parent);
+            int index = arrayIndex(step, length);
+            if (index == length) {
+                throw outOfBounds(index, length);
+            }
+            removed = parent instanceof JSONArray
+                    ? ((JSONArray) parent).remove(index)
+                    : ((LazyJSONArray) parent).remove(index);
+        } else {
+            removed = parent instanceof JSONObject
+                    ? ((JSONObject) parent).remove(step.token)
+                    : ((LazyJSONObject) parent).remove(step.token);
+            if (removed == null) {
+                throw new JSONPointerException(format("key %s not found", step.token));
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Resolves the container that holds the location of this pointer.
+     */
+    private Object parentFrom(Object document, boolean createMissing) {
+        if (steps.length == 0) {
+            throw new JSONPointerException("the whole document cannot be changed in place");
+        }
+        Object current = document;
+        for (int i = 0; i < steps.length - 1; i += 1) {
+            Object next = child(current, steps[i]);
+            if (next == null) {
+                if (!createMissing) {
+                    throw new JSONPointerException(format("key %s not found", steps[i].token));
+                }
+                next = containerFor(steps[i + 1]);
+                setChild(current, steps[i], next);
+            }
+            current = next;
+        }
+        checkContainer(current, steps[steps.length - 1]);
+        return current;
+    }
+
+    /**
+     * Gets the value that a step leads to from a container.
+     * @return the value, or null if the container has no such member or the
+     * index is {@code "-"} or past the end
+     * @throws JSONPointerException if {@code container} is not an object or
+     * array, or the token is not an array index
+     */
+    static Object child(Object container, Step step) {
+        checkContainer(container, step);
+        if (container instanceof JSONObject) {
+            return ((JSONObject) container).opt(step.token);
+        }
+        if (container instanceof LazyJSONObject) {
+            return ((LazyJSONObject) container).opt(step.token);
+        }
+        if ("-".equals(step.token)) {
+            return null;
         }
+        int index = arrayIndex(step, length(container));
+        return container instanceof JSONArray
+                ? ((JSONArray) container).opt(index)
+                : ((LazyJSONArray) container).opt(index);
+    }
+
+    /**
+     * Sets the value that a step leads to in a container, appending to an
+     * array if the token is {@code "-"} or the array's length.
+     * @return the value that was replaced, or null if there was none
+     */
+    static Object setChild(Object container, Step step, Object value) {
+        Object stored = value == null ? JSONObject.NULL : value;
+        Object previous;
+        if (container instanceof JSONObject) {
+            previous = ((JSONObject) container).opt(step.token);
+            ((JSONObject) container).put(step.token, stored);
+        } else if (container instanceof LazyJSONObject) {
+            previous = ((LazyJSONObject) container).opt(step.token);
+            ((LazyJSONObject) container).put(step.token, stored);
+        } else {
+            checkContainer(container, step);
+            int length = length(container);
+            int index = "-".equals(step.token) ? length : arrayIndex(step, length);
+            if (container instanceof JSONArray) {
+                previous = ((JSONArray) container).opt(index);
+                ((JSONArray) container).put(index, stored);
+            } else {
+                previous = ((LazyJSONArray) container).opt(index);
+                ((LazyJSONArray) container).put(index, stored);
+            }
+        }
+        return previous;
+    }
+
+    /**
+     * Makes the container that a missing value on a path is replaced by, an
+     * array if the token that follows it is {@code "-"} or {@code "0"}.
+     */
+    static Object containerFor(Step next) {
+        return "-".equals(next.token) || "0".equals(next.token)
+                ? new JSONArray()
+                : new JSONObject();
+    }
+
+    private static void checkContainer(Object container, Step step) {
+        if (!(container instanceof JSONObject || container instanceof JSONArray
+                || container instanceof LazyJSONObject || container instanceof LazyJSONArray)) {
+            throw new JSONPointerException(format(
+                    "value [%s] is not an array or object therefore its key %s cannot be resolved", container,
+                    step.token));
+        }
+    }
+
+    private static int length(Object array) {
+        return array instanceof LazyJSONArray
+                ? ((LazyJSONArray) array).length()
+                : ((JSONArray) array).length();
+    }
+
+    /**
+     * Gets the index of a step in an array of the given length.
+     * @return an index from 0 to {@code length}
+     * @throws JSONPointerException if the token is not an index, or the index
+     * is negative or past {@code length}
+     */
+    private static int arrayIndex(Step step, int length) {
+        if (!step.isIndex) {
+            throw new JSONPointerException(format("%s is not an array index", step.token));
+        }
+        if (step.index < 0 || step.index > length) {
+            throw outOfBounds(step.index, length);
+        }
+        return step.index;
+    }
+
+    private static JSONPointerException outOfBounds(int index, int length) {
+        return new JSONPointerException(format("index %d is out of bounds - the array has %d elements", index,
+                length));
     }
 
     /**
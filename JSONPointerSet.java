@@ -0,0 +1,470 @@
+package org.json;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+Copyright (c) 2002 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+/**
+ * A JSONPointerSet evaluates many JSON Pointers against a document at once.
+ * The pointers are compiled into a tree of their shared prefixes, so that a
+ * segment common to several pointers is looked up only once, and every
+ * pointer is resolved in a single walk of the document.
+ * <p>
+ * The results are returned in an array with one element for each pointer,
+ * in the order in which the pointers were given. A pointer that does not
+ * resolve gives null, as <code>JSONObject.optQuery</code> does, and a JSON
+ * null gives <code>JSONObject.NULL</code>. For example, <pre>
+ * JSONPointerSet set = new JSONPointerSet("/id", "/user/name", "/tags/0");
+ * Object[] values = set.queryFrom(myJSONObject);</pre>
+ * <p>
+ * A set can also read its values from a {@link JSONReader}, in which case
+ * only the values on the path of some pointer are built, and everything
+ * else is skipped, or from a {@link JSONTokener} with <code>project</code>,
+ * which also stops reading as soon as every pointer has been found.
+ * <p>
+ * A JSONPointerSet is immutable, and may be shared between threads.
+ * @author JSON.org
+ * @version 2016-08-04
+ */
+public class JSONPointerSet {
+
+    /**
+     * A node in the tree of prefixes. The root stands for the whole
+     * document, and each child for one more segment.
+     */
+    private static final class Node {
+
+        /**
+         * The segment of this node, or null for the root.
+         */
+        final JSONPointer.Step step;
+
+        /**
+         * The key of this node in an object, or null for the root.
+         */
+        final String key;
+
+        /**
+         * The index of this node in an array, or -1 if its segment is not
+         * a valid array index.
+         */
+        final int index;
+
+        /**
+         * The positions of the pointers that end at this node.
+         */
+        int[] targets = new int[0];
+
+        /**
+         * The children, in the order in which they were first seen.
+         */
+        final List<Node> children = new ArrayList<Node>(2);
+
+        /**
+         * The children by key.
+         */
+        final Map<String, Node> byKey = new HashMap<String, Node>(4);
+
+        Node(JSONPointer.Step step) {
+            this.step = step;
+            this.key = step == null ? null : step.token;
+            this.index = step != null && step.isIndex && step.index >= 0
+                    ? step.index
+                    : -1;
+        }
+
+        Node child(JSONPointer.Step step) {
+            Node child = this.byKey.get(step.token);
+            if (child == null) {
+                child = new Node(step);
+                this.byKey.put(step.token, child);
+                this.children.add(child);
+            }
+            return child;
+        }
+
+        void addTarget(int position) {
+            int[] grown = new int[this.targets.length + 1];
+            System.arraycopy(this.targets, 0, grown, 0, this.targets.length);
+            grown[this.targets.length] = position;
+            this.targets = grown;
+        }
+
+        /**
+         * Determine if a value is given for this node or one below it.
+         */
+        boolean isWanted(Object[] values) {
+            for (int target : this.targets) {
+                if (values[target] != null) {
+                    return true;
+                }
+            }
+            for (Node child : this.children) {
+                if (child.isWanted(values)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * The pointers, in the order given.
+     */
+    private final List<JSONPointer> pointers;
+
+    /**
+     * The root of the tree of prefixes.
+     */
+    private final Node root;
+
+    /**
+     * Construct a JSONPointerSet from pointer strings.
+     * @param pointers The JSON String or URI Fragment representations of
+     *  the pointers.
+     * @throws IllegalArgumentException If a pointer is not valid.
+     */
+    public JSONPointerSet(String... pointers) {
+        this(compile(pointers));
+    }
+
+    /**
+     * Construct a JSONPointerSet from a collection of pointers.
+     * @param pointers The pointers. Their order is the order of the results.
+     * @throws NullPointerException If a pointer is null.
+     */
+    public JSONPointerSet(Collection<JSONPointer> pointers) {
+        this.pointers = Collections.unmodifiableList(
+                new ArrayList<JSONPointer>(pointers));
+        this.root = new Node(null);
+        for (int i = 0; i < this.pointers.size(); i += 1) {
+            Node node = this.root;
+            for (JSONPointer.Step step : this.pointers.get(i).steps()) {
+                node = node.child(step);
+            }
+            node.addTarget(i);
+        }
+    }
+
+    private static List<JSONPointer> compile(String[] pointers) {
+        List<JSONPointer> list = new ArrayList<JSONPointer>(pointers.length);
+        for (String pointer : pointers) {
+            list.add(JSONPointer.cached(pointer));
+        }
+        return list;
+    }
+
+    /**
+     * Get the number of pointers in the set.
+     * @return The number of pointers, which is the length of the arrays
+     *  returned by <code>queryFrom</code>.
+     */
+    public int size() {
+        return this.pointers.size();
+    }
+
+    /**
+     * Get the pointers in the set.
+     * @return An unmodifiable list of the pointers, in the order of the
+     *  results.
+     */
+    public List<JSONPointer> getPointers() {
+        return this.pointers;
+    }
+
+    /**
+     * Evaluate every pointer against a document.
+     * @param document A JSONObject, JSONArray, LazyJSONObject, LazyJSONArray,
+     *  or JSON value.
+     * @return An array with the value of each pointer, or null where a
+     *  pointer does not resolve.
+     */
+    public Object[] queryFrom(Object document) {
+        Query query = new Query(this.pointers.size(), false);
+        query.resolve(document, this.root);
+        return query.results;
+    }
+
+    /**
+     * Evaluate every pointer against the next value of a JSONReader. The
+     * reader is advanced past the whole value. Objects and arrays that are
+     * not on the path of any pointer are skipped without being built, and
+     * a value is built only if some pointer ends at it.
+     * @param reader A JSONReader, positioned before a value or at the
+     *  <code>KEY</code> event of the value to read.
+     * @return An array with the value of each pointer, or null where a
+     *  pointer does not resolve.
+     * @throws JSONException If there is a syntax error, or if there is no
+     *  value to read.
+     */
+    public Object[] queryFrom(JSONReader reader) throws JSONException {
+        return this.read(reader, false);
+    }
+
+    /**
+     * Evaluate every pointer against the next value of a JSONTokener,
+     * reading no more of the text than is needed. Everything that is not on
+     * the path of some pointer is skipped without being built, and reading
+     * stops as soon as every pointer has been resolved, so the cost depends
+     * on where the values are rather than on the size of the text. If some
+     * pointer does not resolve, the whole value is read.
+     * <p>
+     * Since reading may stop in the middle of the value, the tokener should
+     * not be used for anything else afterward. Syntax errors in the part of
+     * the text that is not read are not reported.
+     * @param x A JSONTokener.
+     * @return An array with the value of each pointer, or null where a
+     *  pointer does not resolve.
+     * @throws JSONException If there is a syntax error, or if there is no
+     *  value to read.
+     */
+    public Object[] project(JSONTokener x) throws JSONException {
+        return this.read(new JSONReader(x), true);
+    }
+
+    /**
+     * Set the values of many pointers in a document, changing it in place.
+     * The tree of shared prefixes is walked once, so each container on the
+     * paths is found only once however many of the pointers pass through
+     * it. A pointer is set before the pointers that extend it, and each
+     * value is set as by {@link JSONPointer#set(Object, Object, boolean)}.
+     * If one of the updates fails, those made before it remain.
+     * @param document The JSONObject or JSONArray to be changed.
+     * @param values The value of each pointer, in the order of the pointers.
+     *  A null element leaves its pointer's location alone; use
+     *  <code>JSONObject.NULL</code> to set a null.
+     * @param createMissing true to make the containers missing along the
+     *  paths.
+     * @throws JSONException If the number of values is not the size of the
+     *  set.
+     * @throws JSONPointerException If a location cannot be reached, or a
+     *  value is given for the empty pointer.
+     */
+    public void setAll(Object document, Object[] values, boolean createMissing)
+            throws JSONException {
+        if (values.length != this.pointers.size()) {
+            throw new JSONException("JSONPointerSet expected "
+                    + this.pointers.size() + " values.");
+        }
+        for (int target : this.root.targets) {
+            if (values[target] != null) {
+                throw new JSONPointerException(
+                        "the whole document cannot be changed in place");
+            }
+        }
+        set(document, this.root, values, createMissing);
+    }
+
+    /**
+     * Set the values of the children of a node in the container that the
+     * node stands for.
+     */
+    private static void set(Object container, Node node, Object[] values,
+            boolean createMissing) {
+        for (Node child : node.children) {
+            if (!child.isWanted(values)) {
+                continue;
+            }
+            for (int target : child.targets) {
+                if (values[target] != null) {
+                    JSONPointer.setChild(container, child.step, values[target]);
+                }
+            }
+            Node first = null;
+            for (Node grandchild : child.children) {
+                if (grandchild.isWanted(values)) {
+                    first = grandchild;
+                    break;
+                }
+            }
+            if (first != null) {
+                Object next = JSONPointer.child(container, child.step);
+                if (next == null) {
+                    if (!createMissing) {
+                        throw new JSONPointerException("key "
+                                + child.step.token + " not found");
+                    }
+                    next = JSONPointer.containerFor(first.step);
+                    JSONPointer.setChild(container, child.step, next);
+                }
+                set(next, child, values, createMissing);
+            }
+        }
+    }
+
+    private Object[] read(JSONReader reader, boolean stopEarly)
+            throws JSONException {
+        JSONReader.Event event = reader.next();
+        if (event == JSONReader.Event.KEY
+                || event == JSONReader.Event.END_OBJECT
+                || event == JSONReader.Event.END_ARRAY
+                || event == JSONReader.Event.END_DOCUMENT) {
+            throw new JSONException("JSONPointerSet expected a value.");
+        }
+        Query query = new Query(this.pointers.size(), stopEarly);
+        if (!query.isDone()) {
+            query.read(reader, this.root);
+        }
+        return query.results;
+    }
+
+    /**
+     * The state of one evaluation of the set.
+     */
+    private static final class Query {
+
+        /**
+         * The value of each pointer, or null until it is found.
+         */
+        final Object[] results;
+
+        /**
+         * The number of pointers that have not been found.
+         */
+        private int remaining;
+
+        /**
+         * true if reading stops when every pointer has been found.
+         */
+        private final boolean stopEarly;
+
+        Query(int size, boolean stopEarly) {
+            this.results = new Object[size];
+            this.remaining = size;
+            this.stopEarly = stopEarly;
+        }
+
+        boolean isDone() {
+            return this.stopEarly && this.remaining == 0;
+        }
+
+        /**
+         * Record the value of a node, and resolve its children in it.
+         */
+        void resolve(Object value, Node node) {
+            for (int target : node.targets) {
+                if (this.results[target] == null) {
+                    this.remaining -= 1;
+                }
+                this.results[target] = value;
+            }
+            for (Node child : node.children) {
+                Object next = null;
+                if (value instanceof JSONObject) {
+                    next = ((JSONObject) value).opt(child.key);
+                } else if (value instanceof LazyJSONObject) {
+                    next = ((LazyJSONObject) value).opt(child.key);
+                } else if (child.index >= 0) {
+                    if (value instanceof JSONArray) {
+                        next = ((JSONArray) value).opt(child.index);
+                    } else if (value instanceof LazyJSONArray) {
+                        LazyJSONArray array = (LazyJSONArray) value;
+                        if (child.index < array.length()) {
+                            next = array.get(child.index);
+                        }
+                    }
+                }
+                if (next != null) {
+                    this.resolve(next, child);
+                }
+            }
+        }
+
+        /**
+         * Read the value whose first event is the reader's current event,
+         * resolving the node and its children in it. If the query is done
+         * when this returns, the rest of the value may not have been read.
+         */
+        void read(JSONReader reader, Node node) throws JSONException {
+            if (node.targets.length > 0 || node.children.isEmpty()) {
+                this.resolve(reader.readValue(), node);
+                return;
+            }
+            JSONReader.Event event = reader.getEvent();
+            if (event == JSONReader.Event.START_OBJECT) {
+                for (event = reader.next(); event != JSONReader.Event.END_OBJECT;
+                        event = reader.next()) {
+                    Node child = node.byKey.get(reader.getString());
+                    if (child == null) {
+                        reader.skipValue();
+                    } else {
+                        reader.next();
+                        this.read(reader, child);
+                        if (this.isDone()) {
+                            return;
+                        }
+                    }
+                }
+            } else if (event == JSONReader.Event.START_ARRAY) {
+                int index = 0;
+                for (event = reader.next(); event != JSONReader.Event.END_ARRAY;
+                        event = reader.next()) {
+                    this.readElement(reader, node, index);
+                    if (this.isDone()) {
+                        return;
+                    }
+                    index += 1;
+                }
+            }
+        }
+
+        /**
+         * Read an array element, resolving the children of the node whose
+         * segments name its index.
+         */
+        private void readElement(JSONReader reader, Node node, int index)
+                throws JSONException {
+            Node found = null;
+            for (Node child : node.children) {
+                if (child.index == index) {
+                    if (found != null) {
+
+// Segments such as "1" and "01" name the same element, so the element is
+// built and each of them is resolved in it.
+
+                        Object value = reader.readValue();
+                        for (Node each : node.children) {
+                            if (each.index == index) {
+                                this.resolve(value, each);
+                            }
+                        }
+                        return;
+                    }
+                    found = child;
+                }
+            }
+            if (found == null) {
+                reader.skipValue();
+            } else {
+                this.read(reader, found);
+            }
+        }
+    }
+}
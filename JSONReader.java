@@ -0,0 +1,443 @@
+package org.json;
+
+import java.io.Reader;
+
+/*
+Copyright (c) 2002 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+/**
+ * JSONReader provides a pull interface for reading JSON text one event at a
+ * time, without building JSONObject and JSONArray trees. It accepts the same
+ * text as the JSONObject and JSONArray constructors, so the forgiving forms
+ * they allow (single quotes, unquoted strings, <code>;</code> between pairs,
+ * and a trailing comma) are reported in the same way.
+ * <p>
+ * Each call to <code>next</code> returns an {@link Event}. Keys and scalar
+ * values are available through <code>getString</code>,
+ * <code>getNumber</code> and <code>getValue</code> until the following call.
+ * For example, <pre>
+ * JSONReader reader = new JSONReader(myReader);
+ * for (JSONReader.Event e = reader.next();
+ *         e != JSONReader.Event.END_DOCUMENT; e = reader.next()) {
+ *     if (e == JSONReader.Event.KEY &amp;&amp; "items".equals(reader.getString())) {
+ *         reader.next();
+ *         reader.skipValue();
+ *     }
+ * }</pre>
+ * <p>
+ * A sequence of values may follow one another at the top level; after the
+ * last of them, <code>next</code> returns <code>END_DOCUMENT</code>.
+ * Duplicate keys are not detected, since the reader does not remember the
+ * keys it has passed.
+ * @author JSON.org
+ * @version 2016-08-04
+ */
+public class JSONReader {
+
+    /**
+     * The events reported by a JSONReader.
+     */
+    public enum Event {
+        /** The start of an object, <code>{</code>. */
+        START_OBJECT,
+        /** The end of an object, <code>}</code>. */
+        END_OBJECT,
+        /** The start of an array, <code>[</code>. */
+        START_ARRAY,
+        /** The end of an array, <code>]</code>. */
+        END_ARRAY,
+        /** A key within an object. */
+        KEY,
+        /** A string value, quoted or not. */
+        VALUE_STRING,
+        /** A numeric value. */
+        VALUE_NUMBER,
+        /** The value <code>true</code>. */
+        VALUE_TRUE,
+        /** The value <code>false</code>. */
+        VALUE_FALSE,
+        /** The value <code>null</code>, or a missing array element. */
+        VALUE_NULL,
+        /** The end of the text. */
+        END_DOCUMENT
+    }
+
+    /** A value is expected at the top level. */
+    private static final int TOP = 0;
+
+    /** A key or the end of an object is expected. */
+    private static final int KEY = 1;
+
+    /** The ':' after a key is expected. */
+    private static final int COLON = 2;
+
+    /** The first element or the end of an array is expected. */
+    private static final int FIRST = 3;
+
+    /** An element of an array is expected. */
+    private static final int ELEMENT = 4;
+
+    /** A separator or the end of the enclosing object or array is expected. */
+    private static final int AFTER = 5;
+
+    /**
+     * The stack of open scopes: 'a' (array) or 'o' (object).
+     */
+    private char stack[];
+
+    /**
+     * The stack top index. A value of 0 indicates that the stack is empty.
+     */
+    private int top;
+
+    /**
+     * What the text is expected to hold next.
+     */
+    private int state;
+
+    /**
+     * The most recent event.
+     */
+    private Event event;
+
+    /**
+     * The key or scalar value of the most recent event.
+     */
+    private Object value;
+
+    /**
+     * true while a value is being skipped, so that strings are not built.
+     */
+    private boolean skipping;
+
+    /**
+     * The source of the text.
+     */
+    private final JSONTokener x;
+
+    /**
+     * Make a JSONReader that reads from a JSONTokener.
+     * @param x A JSONTokener.
+     */
+    public JSONReader(JSONTokener x) {
+        this.stack = new char[16];
+        this.top = 0;
+        this.state = TOP;
+        this.x = x;
+    }
+
+    /**
+     * Make a JSONReader that reads from a Reader.
+     * @param reader A reader.
+     */
+    public JSONReader(Reader reader) {
+        this(new JSONTokener(reader));
+    }
+
+    /**
+     * Make a JSONReader that reads from a string.
+     * @param source A JSON text.
+     */
+    public JSONReader(String source) {
+        this(new JSONTokener(source));
+    }
+
+    /**
+     * Advance to the next event.
+     * @return The event.
+     * @throws JSONException If there is a syntax error.
+     */
+    public Event next() throws JSONException {
+        char c;
+        this.value = null;
+        switch (this.state) {
+        case TOP:
+            c = this.x.nextClean();
+            if (c == 0) {
+                return this.event = Event.END_DOCUMENT;
+            }
+            return this.readValue(c);
+        case COLON:
+            if (this.x.nextClean() != ':') {
+                throw this.x.syntaxError("Expected a ':' after a key");
+            }
+            return this.readValue(this.x.nextClean());
+        case FIRST:
+            if (this.x.nextClean() == ']') {
+                return this.end(Event.END_ARRAY);
+            }
+            this.x.back();
+            return this.readElement();
+        case ELEMENT:
+            return this.readElement();
+        case KEY:
+            return this.readKey();
+        default:
+            if (this.stack[this.top - 1] == 'o') {
+                switch (this.x.nextClean()) {
+                case ';':
+                case ',':
+                    if (this.x.nextClean() == '}') {
+                        return this.end(Event.END_OBJECT);
+                    }
+                    this.x.back();
+                    return this.readKey();
+                case '}':
+                    return this.end(Event.END_OBJECT);
+                default:
+                    throw this.x.syntaxError("Expected a ',' or '}'");
+                }
+            }
+            switch (this.x.nextClean()) {
+            case ',':
+                if (this.x.nextClean() == ']') {
+                    return this.end(Event.END_ARRAY);
+                }
+                this.x.back();
+                return this.readElement();
+            case ']':
+                return this.end(Event.END_ARRAY);
+            default:
+                throw this.x.syntaxError("Expected a ',' or ']'");
+            }
+        }
+    }
+
+    /**
+     * Read an array element. An empty element is reported as a null value.
+     */
+    private Event readElement() throws JSONException {
+        char c = this.x.nextClean();
+        if (c == ',') {
+            this.x.back();
+            this.value = JSONObject.NULL;
+            this.state = AFTER;
+            return this.event = Event.VALUE_NULL;
+        }
+        return this.readValue(c);
+    }
+
+    /**
+     * Read a key, or the end of an object.
+     */
+    private Event readKey() throws JSONException {
+        char c = this.x.nextClean();
+        switch (c) {
+        case 0:
+            throw this.x.syntaxError("A JSONObject text must end with '}'");
+        case '}':
+            return this.end(Event.END_OBJECT);
+        case '"':
+        case '\'':
+            if (this.skipping) {
+                this.x.skipString(c);
+                break;
+            }
+            this.x.back();
+            this.value = this.x.nextKey();
+            break;
+        case '{':
+        case '[':
+            this.x.back();
+            this.value = this.x.nextKey();
+            break;
+        default:
+            if (this.skipping) {
+                this.x.skipSimpleValue(c);
+            } else {
+                this.x.back();
+                this.value = this.x.nextKey();
+            }
+        }
+        this.state = COLON;
+        return this.event = Event.KEY;
+    }
+
+    /**
+     * Read a value whose first character has been consumed.
+     */
+    private Event readValue(char c) throws JSONException {
+        switch (c) {
+        case '{':
+            this.push('o');
+            this.state = KEY;
+            return this.event = Event.START_OBJECT;
+        case '[':
+            this.push('a');
+            this.state = FIRST;
+            return this.event = Event.START_ARRAY;
+        case '"':
+        case '\'':
+            if (this.skipping) {
+                this.x.skipString(c);
+            } else {
+                this.value = this.x.nextString(c);
+            }
+            this.state = this.top == 0 ? TOP : AFTER;
+            return this.event = Event.VALUE_STRING;
+        }
+        this.state = this.top == 0 ? TOP : AFTER;
+        if (this.skipping) {
+            this.x.skipSimpleValue(c);
+            return this.event = Event.VALUE_STRING;
+        }
+        Object object = this.x.nextSimpleValue(c);
+        this.value = object;
+        if (object instanceof Number) {
+            return this.event = Event.VALUE_NUMBER;
+        }
+        if (object instanceof Boolean) {
+            return this.event = ((Boolean) object).booleanValue()
+                ? Event.VALUE_TRUE
+                : Event.VALUE_FALSE;
+        }
+        if (object == JSONObject.NULL) {
+            return this.event = Event.VALUE_NULL;
+        }
+        return this.event = Event.VALUE_STRING;
+    }
+
+    /**
+     * Close the innermost object or array.
+     */
+    private Event end(Event end) {
+        this.top -= 1;
+        this.state = this.top == 0 ? TOP : AFTER;
+        return this.event = end;
+    }
+
+    /**
+     * Open an object or array scope.
+     */
+    private void push(char c) {
+        if (this.top == this.stack.length) {
+            char[] grown = new char[this.stack.length * 2];
+            System.arraycopy(this.stack, 0, grown, 0, this.top);
+            this.stack = grown;
+        }
+        this.stack[this.top] = c;
+        this.top += 1;
+    }
+
+    /**
+     * Get the most recent event.
+     * @return The event, or null if <code>next</code> has not been called.
+     */
+    public Event getEvent() {
+        return this.event;
+    }
+
+    /**
+     * Get the number of objects and arrays that enclose the current position.
+     * After a <code>START_OBJECT</code> event the object itself is counted.
+     * @return The nesting depth, 0 at the top level.
+     */
+    public int getDepth() {
+        return this.top;
+    }
+
+    /**
+     * Get the key of a <code>KEY</code> event, or the text of a scalar value.
+     * @return A string, or null after an event that has no value.
+     */
+    public String getString() {
+        return this.value == null ? null : this.value.toString();
+    }
+
+    /**
+     * Get the value of a <code>VALUE_NUMBER</code> event.
+     * @return An Integer, Long or Double.
+     * @throws JSONException If the current event is not a number.
+     */
+    public Number getNumber() throws JSONException {
+        if (this.value instanceof Number) {
+            return (Number) this.value;
+        }
+        throw new JSONException("JSONReader value is not a number.");
+    }
+
+    /**
+     * Get the value of the current event. This is a String for a key, and a
+     * Boolean, Double, Integer, Long, String, or the JSONObject.NULL object
+     * for a scalar value.
+     * @return The value, or null after an event that has no value.
+     */
+    public Object getValue() {
+        return this.value;
+    }
+
+    /**
+     * Read the whole of the value that the current event starts. After a
+     * <code>START_OBJECT</code> or <code>START_ARRAY</code> event the rest of
+     * the object or array is parsed into a JSONObject or JSONArray, and the
+     * current event becomes the matching end event. After a <code>KEY</code>
+     * event the key's value is read. Otherwise the current value is returned.
+     * @return A JSONObject, JSONArray, or one of the values of
+     *  <code>getValue</code>.
+     * @throws JSONException If there is a syntax error.
+     */
+    public Object readValue() throws JSONException {
+        if (this.event == Event.KEY) {
+            this.next();
+        }
+        if (this.event == Event.START_OBJECT || this.event == Event.START_ARRAY) {
+            this.x.back();
+            this.top -= 1;
+            this.state = this.top == 0 ? TOP : AFTER;
+            if (this.event == Event.START_OBJECT) {
+                this.event = Event.END_OBJECT;
+                return new JSONObject(this.x);
+            }
+            this.event = Event.END_ARRAY;
+            return new JSONArray(this.x);
+        }
+        return this.value;
+    }
+
+    /**
+     * Skip the whole of the value that the current event starts, without
+     * building any strings or containers. After a <code>START_OBJECT</code>
+     * or <code>START_ARRAY</code> event the reader moves to the matching end
+     * event. After a <code>KEY</code> event the key's value is skipped.
+     * Otherwise nothing is done.
+     * @throws JSONException If there is a syntax error.
+     */
+    public void skipValue() throws JSONException {
+        this.skipping = true;
+        try {
+            if (this.event == Event.KEY) {
+                this.next();
+            }
+            if (this.event == Event.START_OBJECT || this.event == Event.START_ARRAY) {
+                int depth = this.top - 1;
+                do {
+                    this.next();
+                } while (this.top > depth);
+            }
+        } finally {
+            this.skipping = false;
+            this.value = null;
+        }
+    }
+}
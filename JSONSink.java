@@ -0,0 +1,163 @@
+package org.json;
+
+/*
+Copyright (c) 2002 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+import java.io.Flushable;
+import java.io.IOException;
+
+/**
+ * A JSONSink receives JSON text. It is an Appendable, so it can be given to
+ * the write methods of JSONObject and JSONArray, to a JSONWriter, or to
+ * <code>XML.write</code>, and those recognize a sink and let it quote strings
+ * straight into its buffer.
+ * <p>
+ * There are two kinds of sink. A {@link JSONCharSink} collects the text in a
+ * reusable character buffer. A {@link JSONUtf8Sink} encodes the text as
+ * UTF-8 into a byte buffer, an OutputStream, or a ByteBuffer. Sinks that
+ * write to another destination buffer their output, so <code>flush</code>
+ * must be called when the text is complete.
+ *
+ * @author JSON.org
+ * @version 2016-08-04
+ */
+public abstract class JSONSink implements Appendable, Flushable {
+
+    /**
+     * The array that numbers are written into before they are appended.
+     */
+    private char[] digits;
+
+    /**
+     * Append a character.
+     *
+     * @param c
+     *            A character.
+     * @return this
+     * @throws IOException
+     *             If the destination cannot be written.
+     */
+    @Override
+    public abstract JSONSink append(char c) throws IOException;
+
+    /**
+     * Append a character sequence. A null sequence appends the characters
+     * <code>null</code>.
+     *
+     * @param csq
+     *            A character sequence.
+     * @return this
+     * @throws IOException
+     *             If the destination cannot be written.
+     */
+    @Override
+    public JSONSink append(CharSequence csq) throws IOException {
+        if (csq == null) {
+            csq = "null";
+        }
+        return this.append(csq, 0, csq.length());
+    }
+
+    /**
+     * Append part of a character sequence. A null sequence is treated as the
+     * characters <code>null</code>.
+     *
+     * @param csq
+     *            A character sequence.
+     * @param start
+     *            The index of the first character to append.
+     * @param end
+     *            The index after the last character to append.
+     * @return this
+     * @throws IOException
+     *             If the destination cannot be written.
+     */
+    @Override
+    public abstract JSONSink append(CharSequence csq, int start, int end)
+            throws IOException;
+
+    /**
+     * Append characters from an array.
+     *
+     * @param chars
+     *            A character array.
+     * @param offset
+     *            The index of the first character to append.
+     * @param length
+     *            The number of characters to append.
+     * @return this
+     * @throws IOException
+     *             If the destination cannot be written.
+     */
+    public abstract JSONSink append(char[] chars, int offset, int length)
+            throws IOException;
+
+    /**
+     * Write any buffered output to the destination. This does nothing for a
+     * sink that keeps its output in memory.
+     *
+     * @throws IOException
+     *             If the destination cannot be written.
+     */
+    @Override
+    public void flush() throws IOException {
+    }
+
+    /**
+     * Append a string in double quotes with backslash sequences, as
+     * <code>JSONObject.quote</code> does. A sink may override this to
+     * escape straight into its buffer.
+     *
+     * @param string
+     *            A non-empty string.
+     * @throws IOException
+     *             If the destination cannot be written.
+     */
+    void quote(CharSequence string) throws IOException {
+        JSONObject.quoteTo(string, this);
+    }
+
+    /**
+     * Append a number, as <code>JSONObject.numberToString</code> makes it.
+     * Integers and most doubles are written without making a string.
+     *
+     * @param number
+     *            A Number.
+     * @throws JSONException
+     *             If the number is not finite.
+     * @throws IOException
+     *             If the destination cannot be written.
+     */
+    void number(Number number) throws IOException {
+        if (this.digits == null) {
+            this.digits = new char[JSONObject.NUMBER_LENGTH];
+        }
+        int length = JSONObject.formatNumber(number, this.digits);
+        if (length >= 0) {
+            this.append(this.digits, 0, length);
+        } else {
+            this.append(JSONObject.numberToString(number));
+        }
+    }
+}
@@ -1,11 +1,10 @@
 package org.json;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
-import java.io.StringReader;
+import java.nio.ByteBuffer;
 
 /*
 Copyright (c) 2002 JSON.org
@@ -40,30 +39,37 @@ SOFTWARE.
  */
 public class JSONTokener {
 
+    /** The size of the buffer used when reading from a Reader. */
+    private static final int BUFFER_SIZE = 8192;
+
+    private char[]  buffer;
     private long    character;
     private boolean eof;
     private long    index;
+    private int     limit;
     private long    line;
+    private int     mark;
+    private boolean ordered;
+    private JSONKeyPool keyPool;
+    /** True if the last character read by next() is the 0 that marks the
+     *  end of the source, which is not in the buffer. */
+    private boolean pastEnd;
+    private int     position;
     private char    previous;
     private Reader  reader;
     private boolean usePrevious;
 
 
     /**
-     * Construct a JSONTokener from a Reader.
+     * Construct a JSONTokener from a Reader. The reader is read in blocks,
+     * so the tokener may consume characters beyond the end of the value it
+     * is asked to parse.
      *
      * @param reader     A reader.
      */
     public JSONTokener(Reader reader) {
-        this.reader = reader.markSupported()
-            ? reader
-            : new BufferedReader(reader);
-        this.eof = false;
-        this.usePrevious = false;
-        this.previous = 0;
-        this.index = 0;
-        this.character = 1;
-        this.line = 1;
+        this(new char[BUFFER_SIZE], 0, 0);
+        this.reader = reader;
     }
 
 
@@ -82,7 +88,98 @@ public class JSONTokener {
      * @param s     A source string.
      */
     public JSONTokener(String s) {
-        this(new StringReader(s));
+        this(s.toCharArray(), 0, s.length());
+    }
+
+
+    /**
+     * Construct a JSONTokener that reads directly from a range of a
+     * character array. There is no reader behind it, so the characters are
+     * scanned in place.
+     *
+     * @param buffer    The source characters.
+     * @param offset    The index of the first character.
+     * @param limit     The index after the last character.
+     */
+    JSONTokener(char[] buffer, int offset, int limit) {
+        this.buffer = buffer;
+        this.position = offset;
+        this.limit = limit;
+        this.mark = -1;
+        this.eof = false;
+        this.usePrevious = false;
+        this.previous = 0;
+        this.index = 0;
+        this.character = 1;
+        this.line = 1;
+    }
+
+
+    /**
+     * Construct a JSONTokener from UTF-8 encoded bytes. The bytes are decoded
+     * directly into the tokener's buffer a block at a time, without going
+     * through an InputStreamReader. Malformed input is replaced with
+     * <code>U+FFFD</code>, and a leading byte order mark is skipped.
+     * <p>
+     * This is a faster UTF-8 decoder in front of the usual character
+     * tokener, not a tokenizer of bytes: every byte is still decoded to a
+     * character before it is scanned. It gains most on text with many
+     * non-ASCII strings, and little on text that is mostly numbers.
+     *
+     * @param bytes The UTF-8 encoded source.
+     * @return A new JSONTokener.
+     */
+    public static JSONTokener fromUtf8(byte[] bytes) {
+        return fromUtf8(bytes, 0, bytes.length);
+    }
+
+
+    /**
+     * Construct a JSONTokener from a range of UTF-8 encoded bytes.
+     *
+     * @param bytes The UTF-8 encoded source.
+     * @param offset The index of the first byte.
+     * @param length The number of bytes.
+     * @return A new JSONTokener.
+     * @see #fromUtf8(byte[])
+     */
+    public static JSONTokener fromUtf8(byte[] bytes, int offset, int length) {
+        if (offset < 0 || length < 0 || offset > bytes.length - length) {
+            throw new IndexOutOfBoundsException();
+        }
+        return new JSONTokener(new Utf8Reader(bytes, offset, offset + length));
+    }
+
+
+    /**
+     * Construct a JSONTokener from the remaining UTF-8 encoded bytes of a
+     * buffer. The position of the buffer is not changed.
+     *
+     * @param buffer The UTF-8 encoded source.
+     * @return A new JSONTokener.
+     * @see #fromUtf8(byte[])
+     */
+    public static JSONTokener fromUtf8(ByteBuffer buffer) {
+        if (buffer.hasArray()) {
+            int offset = buffer.arrayOffset();
+            return new JSONTokener(new Utf8Reader(buffer.array(),
+                    offset + buffer.position(), offset + buffer.limit()));
+        }
+        return new JSONTokener(new Utf8Reader(buffer.duplicate(), null));
+    }
+
+
+    /**
+     * Construct a JSONTokener from a UTF-8 encoded stream. The stream is
+     * read in blocks, so the tokener may consume bytes beyond the end of the
+     * value it is asked to parse.
+     *
+     * @param inputStream The UTF-8 encoded source.
+     * @return A new JSONTokener.
+     * @see #fromUtf8(byte[])
+     */
+    public static JSONTokener fromUtf8(InputStream inputStream) {
+        return new JSONTokener(new Utf8Reader(null, inputStream));
     }
 
 
@@ -102,6 +199,123 @@ public class JSONTokener {
     }
 
 
+    /**
+     * Get the position in the buffer of the next character to be read. For
+     * a tokener made on a character array this is an index into that array.
+     * @return The position.
+     */
+    int offset() {
+        return this.usePrevious && !this.pastEnd
+            ? this.position - 1
+            : this.position;
+    }
+
+
+    /**
+     * Split off up to the given number of lines, each as a tokener of its
+     * own that can be parsed on another thread. Blank lines are skipped.
+     * The lines are found by scanning the buffer for newlines and are moved
+     * out of it with System.arraycopy, since the buffer is refilled; when
+     * there is no reader the buffer is never refilled, so the lines are
+     * views of it. The new tokeners share this tokener's key pool and
+     * ordering, and count characters and lines from where their line starts
+     * in this tokener's source, so their syntax errors give the position in
+     * the whole text.
+     * @param count The most lines to take.
+     * @return The lines, an empty array at the end of the source.
+     * @throws JSONException If the reader fails.
+     */
+    JSONTokener[] nextLines(int count) throws JSONException {
+        if (this.usePrevious) {
+            this.usePrevious = false;
+            if (!this.pastEnd) {
+                this.position -= 1;
+            }
+        }
+        char[] chars = this.reader == null ? this.buffer : new char[BUFFER_SIZE];
+        int length = 0;
+        int[] bounds = new int[count * 2];
+        long[] starts = new long[count * 3];
+        char[] previous = new char[count];
+        int n = 0;
+        lines: while (n < count) {
+            char c;
+            for (;;) {
+                if (this.position >= this.limit && !this.fill()) {
+                    this.eof = true;
+                    break lines;
+                }
+                c = this.buffer[this.position];
+                if (c > ' ') {
+                    break;
+                }
+                if (c == 0) {
+                    this.eof = true;
+                    break lines;
+                }
+                this.position += 1;
+                this.count(c);
+            }
+            int start = this.position;
+            int end;
+            boolean newline;
+            bounds[n * 2] = this.reader == null ? start : length;
+            starts[n * 3] = this.index;
+            starts[n * 3 + 1] = this.character;
+            starts[n * 3 + 2] = this.line;
+            previous[n] = this.previous;
+            for (;;) {
+                end = start;
+                while (end < this.limit && this.buffer[end] != '\n') {
+                    end += 1;
+                }
+                newline = end < this.limit;
+                if (newline) {
+                    end += 1;
+                }
+                if (this.reader != null) {
+                    if (length + end - start > chars.length) {
+                        char[] grown = new char[Math.max(chars.length * 2,
+                                length + end - start)];
+                        System.arraycopy(chars, 0, grown, 0, length);
+                        chars = grown;
+                    }
+                    System.arraycopy(this.buffer, start, chars, length, end - start);
+                    length += end - start;
+                }
+                this.index += end - this.position;
+                this.position = end;
+                if (newline || !this.fill()) {
+                    break;
+                }
+                start = this.position;
+            }
+            bounds[n * 2 + 1] = this.reader == null ? end : length;
+            if (newline) {
+                this.line += 1;
+                this.character = 0;
+                this.previous = '\n';
+            } else {
+                this.character += this.index - starts[n * 3];
+                this.previous = chars[bounds[n * 2 + 1] - 1];
+            }
+            n += 1;
+        }
+        JSONTokener[] tokeners = new JSONTokener[n];
+        for (int i = 0; i < n; i += 1) {
+            JSONTokener x = new JSONTokener(chars, bounds[i * 2], bounds[i * 2 + 1]);
+            x.keyPool = this.keyPool;
+            x.ordered = this.ordered;
+            x.index = starts[i * 3];
+            x.character = starts[i * 3 + 1];
+            x.line = starts[i * 3 + 2];
+            x.previous = previous[i];
+            tokeners[i] = x;
+        }
+        return tokeners;
+    }
+
+
     /**
      * Get the hex value of a character (base16).
      * @param c A character between '0' and '9' or between 'A' and 'F' or
@@ -147,22 +361,35 @@ public class JSONTokener {
      * @return The next character, or 0 if past the end of the source string.
      */
     public char next() throws JSONException {
-        int c;
+        char c;
         if (this.usePrevious) {
             this.usePrevious = false;
             c = this.previous;
         } else {
-            try {
-                c = this.reader.read();
-            } catch (IOException exception) {
-                throw new JSONException(exception);
+            if (this.position < this.limit || this.fill()) {
+                c = this.buffer[this.position];
+                this.position += 1;
+                this.pastEnd = false;
+            } else {
+                c = 0;
+                this.pastEnd = true;
             }
-
-            if (c <= 0) { // End of stream
+            if (c == 0) { // End of stream
                 this.eof = true;
-                c = 0;
             }
         }
+        this.count(c);
+        return c;
+    }
+
+
+    /**
+     * Update the position counters for a character that has just been
+     * consumed.
+     *
+     * @param c The character.
+     */
+    private void count(char c) {
         this.index += 1;
         if (this.previous == '\r') {
             this.line += 1;
@@ -173,8 +400,68 @@ public class JSONTokener {
         } else {
             this.character += 1;
         }
-        this.previous = (char) c;
-        return this.previous;
+        this.previous = c;
+    }
+
+
+    /**
+     * Consume a run of characters straight out of the buffer, updating the
+     * position counters as next() would. The run must not contain a line
+     * terminator.
+     *
+     * @param n The number of characters in the run.
+     */
+    private void skip(int n) {
+        this.position += n;
+        this.index += n;
+        if (this.previous == '\r') {
+            this.line += 1;
+            this.character = n;
+        } else {
+            this.character += n;
+        }
+        this.previous = this.buffer[this.position - 1];
+    }
+
+
+    /**
+     * Read the next block of characters from the reader into the buffer.
+     * Characters from the mark onwards are kept, so that skipTo can return
+     * to it.
+     *
+     * @return true if there are characters to read, false at the end of the
+     *  source.
+     * @throws JSONException If the reader fails.
+     */
+    private boolean fill() throws JSONException {
+        if (this.reader == null) {
+            return false;
+        }
+        int kept = 0;
+        if (this.mark >= 0) {
+            kept = this.limit - this.mark;
+            char[] chars = kept < this.buffer.length
+                ? this.buffer
+                : new char[this.buffer.length * 2];
+            System.arraycopy(this.buffer, this.mark, chars, 0, kept);
+            this.buffer = chars;
+            this.mark = 0;
+        }
+        this.position = kept;
+        this.limit = kept;
+        try {
+            int n;
+            do {
+                n = this.reader.read(this.buffer, kept, this.buffer.length - kept);
+            } while (n == 0);
+            if (n < 0) {
+                return false;
+            }
+            this.limit = kept + n;
+            return true;
+        } catch (IOException exception) {
+            throw new JSONException(exception);
+        }
     }
 
 
@@ -230,7 +517,17 @@ public class JSONTokener {
      */
     public char nextClean() throws JSONException {
         for (;;) {
-            char c = this.next();
+            char c;
+            if (this.usePrevious || this.position >= this.limit) {
+                c = this.next();
+            } else {
+                c = this.buffer[this.position];
+                this.position += 1;
+                if (c == 0) {
+                    this.eof = true;
+                }
+                this.count(c);
+            }
             if (c == 0 || c > ' ') {
                 return c;
             }
@@ -250,9 +547,128 @@ public class JSONTokener {
      * @throws JSONException Unterminated string.
      */
     public String nextString(char quote) throws JSONException {
+        return this.readString(quote, true, null);
+    }
+
+
+    /**
+     * Skip the characters up to the next close quote character, checking
+     * the escapes as nextString would but without building a string.
+     * @param quote The quoting character.
+     * @throws JSONException Unterminated string.
+     */
+    void skipString(char quote) throws JSONException {
+        this.readString(quote, false, null);
+    }
+
+
+    /**
+     * Use a pool of canonical strings for the keys of the objects read by
+     * this tokener. Documents that share a schema then share their key
+     * strings rather than each holding its own copies. A pool may be shared
+     * between tokeners.
+     * @param keyPool The pool, or null to make a new string for every key.
+     */
+    public void setKeyPool(JSONKeyPool keyPool) {
+        this.keyPool = keyPool;
+    }
+
+
+    /**
+     * Make the JSONObjects read by this tokener keep their keys in the order
+     * in which they appear in the text.
+     * @param ordered true to read ordered JSONObjects.
+     * @see JSONObject#ordered()
+     */
+    public void setOrdered(boolean ordered) {
+        this.ordered = ordered;
+    }
+
+
+    /**
+     * Tell if the JSONObjects read by this tokener keep the order of their
+     * keys.
+     * @return true if the objects are ordered.
+     */
+    public boolean isOrdered() {
+        return this.ordered;
+    }
+
+
+    /**
+     * Get the next object key. A key is read like any other value and then
+     * converted to a string, but if there is a key pool the canonical string
+     * is returned, and a quoted key found in the buffer is matched against
+     * the pool without first making a new string.
+     * @return A key string.
+     * @throws JSONException If syntax error.
+     */
+    String nextKey() throws JSONException {
+        char c = this.nextClean();
+        JSONKeyPool pool = this.keyPool;
+        switch (c) {
+        case '"':
+        case '\'':
+            return this.readString(c, true, pool);
+        case '{':
+        case '[':
+            this.back();
+            break;
+        default:
+            String key = this.nextSimpleValue(c).toString();
+            return pool == null ? key : pool.intern(key);
+        }
+        String key = this.nextValue().toString();
+        return pool == null ? key : pool.intern(key);
+    }
+
+
+    /**
+     * Read the characters up to the next close quote character.
+     * @param quote The quoting character.
+     * @param keep  false if the characters are only to be skipped.
+     * @param pool  A pool to take the string from, or null.
+     * @return      A String, or null if keep is false.
+     * @throws JSONException Unterminated string.
+     */
+    private String readString(char quote, boolean keep, JSONKeyPool pool)
+            throws JSONException {
         char c;
-        StringBuilder sb = new StringBuilder();
+        StringBuilder sb = null;
         for (;;) {
+
+// Take runs of plain characters straight out of the buffer. A string without
+// escapes is copied once, without going through a StringBuilder.
+
+            if (!this.usePrevious) {
+                final char[] buf = this.buffer;
+                final int start = this.position;
+                int end = start;
+                while (end < this.limit) {
+                    c = buf[end];
+                    if (c == quote || c == '\\' || c == '\n' || c == '\r'
+                            || c == 0) {
+                        break;
+                    }
+                    end += 1;
+                }
+                if (end > start) {
+                    this.skip(end - start);
+                    if (keep) {
+                        if (sb == null && end < this.limit && buf[end] == quote) {
+                            String string = pool == null
+                                    ? new String(buf, start, end - start)
+                                    : pool.intern(buf, start, end - start);
+                            this.next();
+                            return string;
+                        }
+                        if (sb == null) {
+                            sb = new StringBuilder(end - start + 16);
+                        }
+                        sb.append(buf, start, end - start);
+                    }
+                }
+            }
             c = this.next();
             switch (c) {
             case 0:
@@ -263,23 +679,23 @@ public class JSONTokener {
                 c = this.next();
                 switch (c) {
                 case 'b':
-                    sb.append('\b');
+                    c = '\b';
                     break;
                 case 't':
-                    sb.append('\t');
+                    c = '\t';
                     break;
                 case 'n':
-                    sb.append('\n');
+                    c = '\n';
                     break;
                 case 'f':
-                    sb.append('\f');
+                    c = '\f';
                     break;
                 case 'r':
-                    sb.append('\r');
+                    c = '\r';
                     break;
                 case 'u':
                     try {
-                        sb.append((char)Integer.parseInt(this.next(4), 16));
+                        c = (char)Integer.parseInt(this.next(4), 16);
                     } catch (NumberFormatException e) {
                         throw this.syntaxError("Illegal escape.", e);
                     }
@@ -288,7 +704,6 @@ public class JSONTokener {
                 case '\'':
                 case '\\':
                 case '/':
-                    sb.append(c);
                     break;
                 default:
                     throw this.syntaxError("Illegal escape.");
@@ -296,7 +711,19 @@ public class JSONTokener {
                 break;
             default:
                 if (c == quote) {
-                    return sb.toString();
+                    if (!keep) {
+                        return null;
+                    }
+                    if (sb == null) {
+                        return "";
+                    }
+                    return pool == null ? sb.toString()
+                            : pool.intern(sb.toString());
+                }
+            }
+            if (keep) {
+                if (sb == null) {
+                    sb = new StringBuilder();
                 }
                 sb.append(c);
             }
@@ -357,7 +784,6 @@ public class JSONTokener {
      */
     public Object nextValue() throws JSONException {
         char c = this.nextClean();
-        String string;
 
         switch (c) {
             case '"':
@@ -371,6 +797,36 @@ public class JSONTokener {
                 return new JSONArray(this);
         }
 
+        return this.nextSimpleValue(c);
+    }
+
+
+    /**
+     * Get the values of a set of JSON Pointers in the next value, without
+     * building the parts of it that no pointer reaches. Reading stops as
+     * soon as every pointer has been found.
+     * @param pointers The pointers to evaluate.
+     * @return An array with the value of each pointer, or null where a
+     *  pointer does not resolve.
+     * @throws JSONException If syntax error.
+     * @see JSONPointerSet#project(JSONTokener)
+     */
+    public Object[] nextValues(JSONPointerSet pointers) throws JSONException {
+        return pointers.project(this);
+    }
+
+
+    /**
+     * Get the unquoted value that begins with a character that has already
+     * been consumed. The value can be a Boolean, Double, Integer, Long, or
+     * String, or the JSONObject.NULL object.
+     * @param c The first character of the value.
+     * @return An object.
+     * @throws JSONException If the value is missing.
+     */
+    Object nextSimpleValue(char c) throws JSONException {
+        String string;
+
         /*
          * Handle unquoted text. This could be the values true, false, or
          * null, or it can be a number. An implementation (such as this one)
@@ -380,8 +836,35 @@ public class JSONTokener {
          * formatting character.
          */
 
+        if (isUnquoted(c) && !this.usePrevious && this.position > 0
+                && this.buffer[this.position - 1] == c) {
+
+// The text is usually all in the buffer, so take it from there in one piece.
+
+            final char[] buf = this.buffer;
+            final int start = this.position - 1;
+            int end = this.position;
+            while (end < this.limit && isUnquoted(buf[end])) {
+                end += 1;
+            }
+            if (end < this.limit) {
+                if (end > this.position) {
+                    this.skip(end - this.position);
+                }
+                this.next();
+                this.back();
+                while (buf[end - 1] == ' ') {
+                    end -= 1;
+                }
+                Object value = simpleValue(buf, start, end);
+                if (value != null) {
+                    return value;
+                }
+                return JSONObject.stringToValue(new String(buf, start, end - start));
+            }
+        }
         StringBuilder sb = new StringBuilder();
-        while (c >= ' ' && ",:]}/\\\"[{;=#".indexOf(c) < 0) {
+        while (isUnquoted(c)) {
             sb.append(c);
             c = this.next();
         }
@@ -395,6 +878,138 @@ public class JSONTokener {
     }
 
 
+    /**
+     * Powers of ten that are exactly representable as doubles.
+     */
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+
+    /**
+     * Convert the common forms of unquoted text straight from the buffer:
+     * <code>true</code>, <code>false</code>, <code>null</code>, integers in
+     * canonical form, and decimals of up to 15 digits without an exponent.
+     * These give the same values as JSONObject.stringToValue, without
+     * building a String first.
+     * @param buf The buffer.
+     * @param start The index of the first character of the text.
+     * @param end The index after the last character of the text.
+     * @return The value, or null if the text has to go through stringToValue.
+     */
+    private static Object simpleValue(char[] buf, int start, int end) {
+        int length = end - start;
+        char initial = buf[start];
+        if (initial == 't' || initial == 'f' || initial == 'n') {
+            if (length == 4 && initial == 't' && buf[start + 1] == 'r'
+                    && buf[start + 2] == 'u' && buf[start + 3] == 'e') {
+                return Boolean.TRUE;
+            }
+            if (length == 5 && initial == 'f' && buf[start + 1] == 'a'
+                    && buf[start + 2] == 'l' && buf[start + 3] == 's'
+                    && buf[start + 4] == 'e') {
+                return Boolean.FALSE;
+            }
+            if (length == 4 && initial == 'n' && buf[start + 1] == 'u'
+                    && buf[start + 2] == 'l' && buf[start + 3] == 'l') {
+                return JSONObject.NULL;
+            }
+            return null;
+        }
+        if ((initial < '0' || initial > '9') && initial != '-') {
+            return null;
+        }
+        int i = initial == '-' ? start + 1 : start;
+        long value = 0;
+        int digits = 0;
+        int point = -1;
+        for (; i < end; i += 1) {
+            char c = buf[i];
+            if (c >= '0' && c <= '9') {
+                value = value * 10 + (c - '0');
+                digits += 1;
+                if (digits > 15) {
+                    return null;
+                }
+            } else if (c == '.' && point < 0) {
+                point = i;
+            } else {
+                return null;
+            }
+        }
+        if (digits == 0) {
+            return null;
+        }
+        if (point >= 0) {
+
+// Both the digits and the power of ten are exact, so a single division gives
+// the correctly rounded result, as Double.valueOf would.
+
+            double d = value / POWERS_OF_TEN[end - point - 1];
+            return Double.valueOf(initial == '-' ? -d : d);
+        }
+        if (digits > 1 && buf[end - digits] == '0') {
+            return null;
+        }
+        if (initial == '-') {
+            if (value == 0) {
+                return null;
+            }
+            value = -value;
+        }
+        if (value == (int) value) {
+            return Integer.valueOf((int) value);
+        }
+        return Long.valueOf(value);
+    }
+
+
+    /**
+     * Skip the unquoted value that begins with a character that has already
+     * been consumed, without converting it.
+     * @param c The first character of the value.
+     * @throws JSONException If the value is missing.
+     */
+    void skipSimpleValue(char c) throws JSONException {
+        if (!isUnquoted(c)) {
+            this.back();
+            throw this.syntaxError("Missing value");
+        }
+        do {
+            c = this.next();
+        } while (isUnquoted(c));
+        this.back();
+    }
+
+
+    /**
+     * Determine if a character can be part of an unquoted value.
+     *
+     * @param c A character.
+     * @return true if c neither ends the text nor is a formatting character.
+     */
+    private static boolean isUnquoted(char c) {
+        switch (c) {
+        case ',':
+        case ':':
+        case ']':
+        case '}':
+        case '/':
+        case '\\':
+        case '"':
+        case '[':
+        case '{':
+        case ';':
+        case '=':
+        case '#':
+            return false;
+        default:
+            return c >= ' ';
+        }
+    }
+
+
     /**
      * Skip characters until the next character is the requested character.
      * If the requested character is not found, no characters are skipped.
@@ -404,23 +1019,23 @@ public class JSONTokener {
      */
     public char skipTo(char to) throws JSONException {
         char c;
+        long startIndex = this.index;
+        long startCharacter = this.character;
+        long startLine = this.line;
+        this.mark = this.position;
         try {
-            long startIndex = this.index;
-            long startCharacter = this.character;
-            long startLine = this.line;
-            this.reader.mark(1000000);
             do {
                 c = this.next();
                 if (c == 0) {
-                    this.reader.reset();
+                    this.position = this.mark;
                     this.index = startIndex;
                     this.character = startCharacter;
                     this.line = startLine;
                     return c;
                 }
             } while (c != to);
-        } catch (IOException exception) {
-            throw new JSONException(exception);
+        } finally {
+            this.mark = -1;
         }
         this.back();
         return c;
@@ -457,4 +1072,194 @@ public class JSONTokener {
         return " at " + this.index + " [character " + this.character + " line " +
             this.line + "]";
     }
+
+
+    /**
+     * A Reader that decodes UTF-8 bytes straight into the caller's character
+     * array. Runs of ASCII are copied in a tight loop; other sequences are
+     * decoded by hand, so no CharsetDecoder is involved. All of the bytes
+     * are decoded, structural ones included; the tokener only ever sees
+     * characters.
+     */
+    private static final class Utf8Reader extends Reader {
+
+        /** The replacement for malformed input. */
+        private static final char REPLACEMENT = '\uFFFD';
+
+        private byte[] bytes;
+        private int position;
+        private int limit;
+        private final ByteBuffer source;
+        private final InputStream stream;
+        private char pending;
+        private boolean start;
+
+        /**
+         * Decode a fixed range of a byte array.
+         */
+        Utf8Reader(byte[] bytes, int offset, int limit) {
+            this.bytes = bytes;
+            this.position = offset;
+            this.limit = limit;
+            this.source = null;
+            this.stream = null;
+            this.start = true;
+        }
+
+        /**
+         * Decode bytes pulled in blocks from either a buffer without a
+         * backing array or a stream.
+         */
+        Utf8Reader(ByteBuffer source, InputStream stream) {
+            this.bytes = new byte[BUFFER_SIZE];
+            this.position = 0;
+            this.limit = 0;
+            this.source = source;
+            this.stream = stream;
+            this.start = true;
+        }
+
+        /**
+         * Make at least n bytes available after the position, if the source
+         * has them.
+         *
+         * @return true if n bytes are available.
+         */
+        private boolean require(int n) throws IOException {
+            if (this.limit - this.position >= n) {
+                return true;
+            }
+            if (this.source == null && this.stream == null) {
+                return false;
+            }
+            int kept = this.limit - this.position;
+            System.arraycopy(this.bytes, this.position, this.bytes, 0, kept);
+            this.position = 0;
+            this.limit = kept;
+            while (this.limit < n) {
+                int count;
+                if (this.stream != null) {
+                    count = this.stream.read(this.bytes, this.limit,
+                            this.bytes.length - this.limit);
+                } else {
+                    count = Math.min(this.source.remaining(),
+                            this.bytes.length - this.limit);
+                    if (count == 0) {
+                        count = -1;
+                    } else {
+                        this.source.get(this.bytes, this.limit, count);
+                    }
+                }
+                if (count < 0) {
+                    return false;
+                }
+                this.limit += count;
+            }
+            return true;
+        }
+
+        @Override
+        public int read(char[] chars, int offset, int length) throws IOException {
+            int n = offset;
+            final int end = offset + length;
+            if (this.start) {
+                this.start = false;
+                if (this.require(3) && this.bytes[this.position] == (byte) 0xEF
+                        && this.bytes[this.position + 1] == (byte) 0xBB
+                        && this.bytes[this.position + 2] == (byte) 0xBF) {
+                    this.position += 3;
+                }
+            }
+            if (this.pending != 0 && n < end) {
+                chars[n] = this.pending;
+                this.pending = 0;
+                n += 1;
+            }
+            while (n < end) {
+                if (this.position >= this.limit && !this.require(1)) {
+                    break;
+                }
+                final byte[] b = this.bytes;
+                int p = this.position;
+                int run = Math.min(end - n, this.limit - p);
+                while (run > 0 && b[p] >= 0) {
+                    chars[n] = (char) b[p];
+                    n += 1;
+                    p += 1;
+                    run -= 1;
+                }
+                this.position = p;
+                if (run > 0) {
+                    n = this.decode(chars, n, end);
+                }
+            }
+            return n == offset && length > 0 ? -1 : n - offset;
+        }
+
+        /**
+         * Decode one multi-byte sequence at the position.
+         *
+         * @return The index after the characters that were stored.
+         */
+        private int decode(char[] chars, int n, int end) throws IOException {
+            int lead = this.bytes[this.position] & 0xFF;
+            int extra;
+            int min;
+            if (lead >= 0xC2 && lead <= 0xDF) {
+                extra = 1;
+                min = 0x80;
+            } else if (lead >= 0xE0 && lead <= 0xEF) {
+                extra = 2;
+                min = 0x800;
+            } else if (lead >= 0xF0 && lead <= 0xF4) {
+                extra = 3;
+                min = 0x10000;
+            } else {
+                this.position += 1;
+                chars[n] = REPLACEMENT;
+                return n + 1;
+            }
+            if (!this.require(extra + 1)) {
+                this.position += 1;
+                chars[n] = REPLACEMENT;
+                return n + 1;
+            }
+            int code = lead & (0x3F >> extra);
+            for (int i = 1; i <= extra; i += 1) {
+                int b = this.bytes[this.position + i];
+                if ((b & 0xC0) != 0x80) {
+                    this.position += i;
+                    chars[n] = REPLACEMENT;
+                    return n + 1;
+                }
+                code = (code << 6) | (b & 0x3F);
+            }
+            this.position += extra + 1;
+            if (code < min || code > 0x10FFFF
+                    || (code >= 0xD800 && code <= 0xDFFF)) {
+                chars[n] = REPLACEMENT;
+                return n + 1;
+            }
+            if (code < 0x10000) {
+                chars[n] = (char) code;
+                return n + 1;
+            }
+            code -= 0x10000;
+            chars[n] = (char) (0xD800 + (code >>> 10));
+            char low = (char) (0xDC00 + (code & 0x3FF));
+            if (n + 1 < end) {
+                chars[n + 1] = low;
+                return n + 2;
+            }
+            this.pending = low;
+            return n + 1;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (this.stream != null) {
+                this.stream.close();
+            }
+        }
+    }
 }
@@ -0,0 +1,380 @@
+package org.json;
+
+/*
+Copyright (c) 2002 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * A JSONUtf8Sink encodes JSON text as UTF-8 as it is appended, so that no
+ * intermediate String is built. The bytes can be kept in a growing buffer,
+ * or passed through a fixed buffer to an OutputStream or a ByteBuffer. When
+ * writing to a stream or a ByteBuffer, call <code>flush</code> once the text
+ * is complete.
+ * <p>
+ * A surrogate that is not part of a pair is encoded as '?', as
+ * <code>String.getBytes</code> does.
+ *
+ * @author JSON.org
+ * @version 2016-08-04
+ */
+public class JSONUtf8Sink extends JSONSink {
+
+    /**
+     * The ASCII characters that quote can copy without an escape. The
+     * character '/' is not one of them, as it is escaped after '<'.
+     */
+    private static final boolean[] PLAIN = new boolean[0x80];
+
+    static {
+        for (char c = 0; c < 0x80; c += 1) {
+            PLAIN[c] = c != '/' && JSONObject.escape(c) == null;
+        }
+    }
+
+    private byte[] buffer;
+    private int count;
+    private final OutputStream out;
+    private char pending;
+    private final ByteBuffer target;
+
+    /**
+     * Construct a sink that keeps its bytes in a buffer of 256 bytes, which
+     * grows as needed.
+     */
+    public JSONUtf8Sink() {
+        this(256);
+    }
+
+    /**
+     * Construct a sink that keeps its bytes in a buffer, which grows as
+     * needed.
+     *
+     * @param capacity
+     *            The initial size of the buffer.
+     */
+    public JSONUtf8Sink(int capacity) {
+        this.buffer = new byte[Math.max(capacity, 16)];
+        this.out = null;
+        this.target = null;
+    }
+
+    /**
+     * Construct a sink that writes to an OutputStream through a buffer of
+     * 8192 bytes.
+     *
+     * @param out
+     *            The stream.
+     */
+    public JSONUtf8Sink(OutputStream out) {
+        this(out, 8192);
+    }
+
+    /**
+     * Construct a sink that writes to an OutputStream through a buffer.
+     *
+     * @param out
+     *            The stream.
+     * @param bufferSize
+     *            The size of the buffer.
+     */
+    public JSONUtf8Sink(OutputStream out, int bufferSize) {
+        this.buffer = new byte[Math.max(bufferSize, 16)];
+        this.out = out;
+        this.target = null;
+    }
+
+    /**
+     * Construct a sink that puts its bytes into a ByteBuffer, starting at its
+     * position. A BufferOverflowException is thrown if the text does not
+     * fit.
+     *
+     * @param target
+     *            The ByteBuffer.
+     */
+    public JSONUtf8Sink(ByteBuffer target) {
+        this.buffer = new byte[Math.max(Math.min(target.remaining(), 8192), 16)];
+        this.out = null;
+        this.target = target;
+    }
+
+    /**
+     * Make room for more bytes, by passing on the buffered bytes or by
+     * growing the buffer.
+     *
+     * @param n
+     *            The number of bytes that will be added.
+     * @return The buffer.
+     * @throws IOException
+     *             If the stream cannot be written.
+     */
+    private byte[] ensure(int n) throws IOException {
+        if (this.count + n > this.buffer.length) {
+            if (this.out != null || this.target != null) {
+                this.drain();
+            }
+            int needed = this.count + n;
+            if (needed > this.buffer.length) {
+                int capacity = this.buffer.length << 1;
+                if (capacity < needed) {
+                    capacity = needed;
+                }
+                byte[] buffer = new byte[capacity];
+                System.arraycopy(this.buffer, 0, buffer, 0, this.count);
+                this.buffer = buffer;
+            }
+        }
+        return this.buffer;
+    }
+
+    /**
+     * Pass the buffered bytes on to the stream or ByteBuffer.
+     */
+    private void drain() throws IOException {
+        if (this.count > 0) {
+            if (this.out != null) {
+                this.out.write(this.buffer, 0, this.count);
+            } else {
+                this.target.put(this.buffer, 0, this.count);
+            }
+            this.count = 0;
+        }
+    }
+
+    @Override
+    public JSONUtf8Sink append(char c) throws IOException {
+        byte[] buffer = this.ensure(4);
+        if (c < 0x80 && this.pending == 0) {
+            buffer[this.count++] = (byte) c;
+        } else {
+            this.encode(buffer, c);
+        }
+        return this;
+    }
+
+    @Override
+    public JSONUtf8Sink append(CharSequence csq) throws IOException {
+        if (csq == null) {
+            csq = "null";
+        }
+        return this.append(csq, 0, csq.length());
+    }
+
+    @Override
+    public JSONUtf8Sink append(CharSequence csq, int start, int end)
+            throws IOException {
+        if (csq == null) {
+            csq = "null";
+        }
+        int i = start;
+        while (i < end) {
+            byte[] buffer = this.ensure(Math.min(end - i, 1024) * 3 + 1);
+            int stop = Math.min(end, i + 1024);
+            int count = this.count;
+            if (this.pending == 0) {
+                while (i < stop) {
+                    char c = csq.charAt(i);
+                    if (c >= 0x80) {
+                        break;
+                    }
+                    buffer[count++] = (byte) c;
+                    i += 1;
+                }
+            }
+            this.count = count;
+            while (i < stop) {
+                this.encode(buffer, csq.charAt(i));
+                i += 1;
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public JSONUtf8Sink append(char[] chars, int offset, int length)
+            throws IOException {
+        int i = offset;
+        int end = offset + length;
+        while (i < end) {
+            byte[] buffer = this.ensure(Math.min(end - i, 1024) * 3 + 1);
+            int stop = Math.min(end, i + 1024);
+            while (i < stop) {
+                this.encode(buffer, chars[i]);
+                i += 1;
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Quote a string as JSONObject.quote does, escaping and encoding it
+     * straight into the buffer. Runs of ASCII characters that need no escape
+     * are copied a byte at a time.
+     */
+    @Override
+    void quote(CharSequence string) throws IOException {
+        this.append('"');
+        int len = string.length();
+        int i = 0;
+        while (i < len) {
+            int stop = Math.min(len, i + 1024);
+            byte[] buffer = this.ensure((stop - i) * 6 + 1);
+            while (i < stop) {
+                if (this.pending == 0) {
+                    int count = this.count;
+                    char c;
+                    while (i < stop && (c = string.charAt(i)) < 0x80
+                            && PLAIN[c]) {
+                        buffer[count++] = (byte) c;
+                        i += 1;
+                    }
+                    this.count = count;
+                    if (i == stop) {
+                        break;
+                    }
+                }
+                char c = string.charAt(i);
+                String escape = null;
+                if (c < '\u00a0') {
+                    if (c != '/' || (i > 0 && string.charAt(i - 1) == '<')) {
+                        escape = JSONObject.escape(c);
+                    }
+                } else if (c >= '\u2000' && c < '\u2100') {
+                    escape = JSONObject.escape(c);
+                }
+                if (escape == null) {
+                    this.encode(buffer, c);
+                } else {
+                    int count = this.count;
+                    if (this.pending != 0) {
+                        this.pending = 0;
+                        buffer[count++] = '?';
+                    }
+                    for (int j = 0; j < escape.length(); j += 1) {
+                        buffer[count++] = (byte) escape.charAt(j);
+                    }
+                    this.count = count;
+                }
+                i += 1;
+            }
+        }
+        this.append('"');
+    }
+
+    /**
+     * Encode a character into the buffer, which must have room for four
+     * bytes. A high surrogate is held until the next character.
+     */
+    private void encode(byte[] buffer, char c) {
+        int count = this.count;
+        if (this.pending != 0) {
+            char high = this.pending;
+            this.pending = 0;
+            if (c >= '\uDC00' && c <= '\uDFFF') {
+                int cp = ((high - 0xD800) << 10) + (c - 0xDC00) + 0x10000;
+                buffer[count++] = (byte) (0xF0 | (cp >> 18));
+                buffer[count++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                buffer[count++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                buffer[count++] = (byte) (0x80 | (cp & 0x3F));
+                this.count = count;
+                return;
+            }
+            buffer[count++] = '?';
+        }
+        if (c < 0x80) {
+            buffer[count++] = (byte) c;
+        } else if (c < 0x800) {
+            buffer[count++] = (byte) (0xC0 | (c >> 6));
+            buffer[count++] = (byte) (0x80 | (c & 0x3F));
+        } else if (c >= '\uD800' && c <= '\uDBFF') {
+            this.pending = c;
+        } else if (c >= '\uDC00' && c <= '\uDFFF') {
+            buffer[count++] = '?';
+        } else {
+            buffer[count++] = (byte) (0xE0 | (c >> 12));
+            buffer[count++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            buffer[count++] = (byte) (0x80 | (c & 0x3F));
+        }
+        this.count = count;
+    }
+
+    /**
+     * Pass any buffered bytes on to the stream or ByteBuffer, and flush the
+     * stream. A high surrogate waiting for its pair is kept.
+     *
+     * @throws IOException
+     *             If the stream cannot be written.
+     */
+    @Override
+    public void flush() throws IOException {
+        if (this.out != null || this.target != null) {
+            this.drain();
+        }
+        if (this.out != null) {
+            this.out.flush();
+        }
+    }
+
+    /**
+     * Get the number of bytes held in the buffer.
+     *
+     * @return The number of bytes.
+     */
+    public int size() {
+        return this.count;
+    }
+
+    /**
+     * Empty the buffer, keeping it for reuse.
+     */
+    public void reset() {
+        this.count = 0;
+        this.pending = 0;
+    }
+
+    /**
+     * Copy the bytes held in the buffer.
+     *
+     * @return A new array holding the bytes.
+     */
+    public byte[] toByteArray() {
+        byte[] bytes = new byte[this.count];
+        System.arraycopy(this.buffer, 0, bytes, 0, this.count);
+        return bytes;
+    }
+
+    /**
+     * Write the bytes held in the buffer to a stream.
+     *
+     * @param out
+     *            A stream.
+     * @throws IOException
+     *             If the stream cannot be written.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(this.buffer, 0, this.count);
+    }
+}
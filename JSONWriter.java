@@ -1,6 +1,8 @@
 package org.json;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
 /*
 Copyright (c) 2006 JSON.org
@@ -91,6 +93,7 @@ public class JSONWriter {
 
     /**
      * Make a fresh JSONWriter. It can be used to build one JSON text.
+     * If the writer is a JSONSink, it is flushed when the text is complete.
      */
     public JSONWriter(Appendable w) {
         this.comma = false;
@@ -100,6 +103,27 @@ public class JSONWriter {
         this.writer = w;
     }
 
+    /**
+     * Make a fresh JSONWriter that encodes its text as UTF-8 straight to a
+     * stream. The stream is flushed when the text is complete.
+     *
+     * @param out The stream.
+     */
+    public JSONWriter(OutputStream out) {
+        this(new JSONUtf8Sink(out));
+    }
+
+    /**
+     * Make a fresh JSONWriter that encodes its text as UTF-8 into a
+     * ByteBuffer, starting at its position. The bytes are put into the
+     * ByteBuffer when the text is complete.
+     *
+     * @param buffer The ByteBuffer.
+     */
+    public JSONWriter(ByteBuffer buffer) {
+        this(new JSONUtf8Sink(buffer));
+    }
+
     /**
      * Append a JSON-encoded value.
      * @param string A string value.
@@ -192,6 +216,9 @@ public class JSONWriter {
         this.pop(mode);
         try {
             this.writer.append(c);
+            if (this.mode == 'd' && this.writer instanceof JSONSink) {
+                ((JSONSink) this.writer).flush();
+            }
         } catch (IOException e) {
             throw new JSONException(e);
         }
@@ -328,7 +355,9 @@ public class JSONWriter {
      * @throws JSONException If the number is not finite.
      */
     public JSONWriter value(double d) throws JSONException {
-        return this.append(JSONObject.numberToString(Double.valueOf(d)));
+        Double number = Double.valueOf(d);
+        JSONObject.testValidity(number);
+        return this.appendValue(number);
     }
 
     /**
@@ -338,7 +367,7 @@ public class JSONWriter {
      * @throws JSONException
      */
     public JSONWriter value(long l) throws JSONException {
-        return this.append(Long.toString(l));
+        return this.appendValue(Long.valueOf(l));
     }
 
 
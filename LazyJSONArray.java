@@ -0,0 +1,397 @@
+package org.json;
+
+/*
+Copyright (c) 2002 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+import java.io.IOException;
+
+/**
+ * A LazyJSONArray is the array counterpart of {@link LazyJSONObject}. Making
+ * one finds the span of characters that holds each element, and an element
+ * is parsed the first time <code>get</code>, <code>opt</code> or
+ * <code>query</code> reaches it. <code>write</code> copies elements that have
+ * not been replaced straight from the source.
+ *
+ * @author JSON.org
+ * @version 2016-08-04
+ */
+public class LazyJSONArray implements JSONString {
+
+    /**
+     * The source text.
+     */
+    private final char[] chars;
+
+    /**
+     * The start of the text of each element, or -1 for an element that was
+     * elided or has been replaced.
+     */
+    private int[] starts;
+
+    /**
+     * The end of the text of each element.
+     */
+    private int[] ends;
+
+    /**
+     * The elements parsed or put so far, null for those not yet parsed.
+     */
+    private Object[] values;
+
+    /**
+     * The number of elements.
+     */
+    private int count;
+
+    /**
+     * Construct a LazyJSONArray from a source JSON text.
+     *
+     * @param source
+     *            A string that begins with <code>[</code>&nbsp;<small>(left
+     *            bracket)</small> and ends with <code>]</code>
+     *            &nbsp;<small>(right bracket)</small>.
+     * @throws JSONException
+     *             If there is a syntax error in the array's own text.
+     */
+    public LazyJSONArray(String source) throws JSONException {
+        this(source.toCharArray(), 0, source.length());
+    }
+
+    /**
+     * Construct a LazyJSONArray on a range of characters.
+     *
+     * @param chars
+     *            The text.
+     * @param start
+     *            The index of the opening bracket.
+     * @param limit
+     *            The index after the last character that may be read.
+     * @throws JSONException
+     *             If there is a syntax error in the array's own text.
+     */
+    LazyJSONArray(char[] chars, int start, int limit) throws JSONException {
+        this.chars = chars;
+        this.starts = new int[8];
+        this.ends = new int[8];
+        this.values = new Object[8];
+        JSONTokener x = new JSONTokener(chars, start, limit);
+        if (x.nextClean() != '[') {
+            throw x.syntaxError("A JSONArray text must start with '['");
+        }
+        if (x.nextClean() != ']') {
+            x.back();
+            for (;;) {
+                char c = x.nextClean();
+                if (c == ',') {
+                    x.back();
+                    this.add(-1, -1, JSONObject.NULL);
+                } else {
+                    int valueStart = x.offset() - 1;
+                    LazyJSONObject.skipValue(x, c);
+                    this.add(valueStart, x.offset(), null);
+                }
+                switch (x.nextClean()) {
+                case ',':
+                    if (x.nextClean() == ']') {
+                        return;
+                    }
+                    x.back();
+                    break;
+                case ']':
+                    return;
+                default:
+                    throw x.syntaxError("Expected a ',' or ']'");
+                }
+            }
+        }
+    }
+
+    /**
+     * Add an element.
+     */
+    private void add(int start, int end, Object value) {
+        if (this.count == this.starts.length) {
+            int capacity = this.count << 1;
+            int[] starts = new int[capacity];
+            int[] ends = new int[capacity];
+            Object[] values = new Object[capacity];
+            System.arraycopy(this.starts, 0, starts, 0, this.count);
+            System.arraycopy(this.ends, 0, ends, 0, this.count);
+            System.arraycopy(this.values, 0, values, 0, this.count);
+            this.starts = starts;
+            this.ends = ends;
+            this.values = values;
+        }
+        this.starts[this.count] = start;
+        this.ends[this.count] = end;
+        this.values[this.count] = value;
+        this.count += 1;
+    }
+
+    /**
+     * Get the element at an index, parsing it if necessary.
+     *
+     * @param index
+     *            The index must be between 0 and length() - 1.
+     * @return The element: a LazyJSONObject, LazyJSONArray, Boolean, Number,
+     *         String, or the JSONObject.NULL object.
+     * @throws JSONException
+     *             If there is no element at the index, or it has a syntax
+     *             error.
+     */
+    public Object get(int index) throws JSONException {
+        Object object = this.opt(index);
+        if (object == null) {
+            throw new JSONException("JSONArray[" + index + "] not found.");
+        }
+        return object;
+    }
+
+    /**
+     * Get the optional element at an index, parsing it if necessary.
+     *
+     * @param index
+     *            The index must be between 0 and length() - 1.
+     * @return The element, or null if there is none.
+     * @throws JSONException
+     *             If the element has a syntax error.
+     */
+    public Object opt(int index) throws JSONException {
+        if (index < 0 || index >= this.count) {
+            return null;
+        }
+        Object value = this.values[index];
+        if (value == null) {
+            value = LazyJSONObject.parse(this.chars, this.starts[index],
+                    this.ends[index]);
+            this.values[index] = value;
+        }
+        return value;
+    }
+
+    /**
+     * Get the number of elements.
+     *
+     * @return The number of elements.
+     */
+    public int length() {
+        return this.count;
+    }
+
+    /**
+     * Append a value.
+     *
+     * @param value
+     *            A value, not null.
+     * @return this.
+     * @throws JSONException
+     *             If the value is a non-finite number.
+     */
+    public LazyJSONArray put(Object value) throws JSONException {
+        JSONObject.testValidity(value);
+        this.add(-1, -1, value == null ? JSONObject.NULL : value);
+        return this;
+    }
+
+    /**
+     * Replace the element at an index. If the index is past the end, the
+     * array is padded with nulls.
+     *
+     * @param index
+     *            The index.
+     * @param value
+     *            A value.
+     * @return this.
+     * @throws JSONException
+     *             If the index is negative or the value is a non-finite
+     *             number.
+     */
+    public LazyJSONArray put(int index, Object value) throws JSONException {
+        JSONObject.testValidity(value);
+        if (index < 0) {
+            throw new JSONException("JSONArray[" + index + "] not found.");
+        }
+        while (index > this.count) {
+            this.add(-1, -1, JSONObject.NULL);
+        }
+        if (index == this.count) {
+            this.put(value);
+        } else {
+            this.values[index] = value == null ? JSONObject.NULL : value;
+            this.starts[index] = -1;
+        }
+        return this;
+    }
+
+    /**
+     * Insert a value before an index, moving the later elements up. An index
+     * equal to the length appends the value.
+     *
+     * @param index
+     *            The index, from 0 to the length.
+     * @param value
+     *            A value.
+     * @throws JSONException
+     *             If the value is a non-finite number.
+     */
+    void insert(int index, Object value) throws JSONException {
+        JSONObject.testValidity(value);
+        this.add(-1, -1, value == null ? JSONObject.NULL : value);
+        int moved = this.count - 1 - index;
+        System.arraycopy(this.starts, index, this.starts, index + 1, moved);
+        System.arraycopy(this.ends, index, this.ends, index + 1, moved);
+        System.arraycopy(this.values, index, this.values, index + 1, moved);
+        this.starts[index] = -1;
+        this.ends[index] = -1;
+        this.values[index] = value == null ? JSONObject.NULL : value;
+    }
+
+    /**
+     * Remove an index and close the hole.
+     *
+     * @param index
+     *            The index of the element to be removed.
+     * @return The value that was at the index, or null if there was none.
+     * @throws JSONException
+     *             If the element has a syntax error.
+     */
+    public Object remove(int index) throws JSONException {
+        Object value = this.opt(index);
+        if (value != null) {
+            int moved = this.count - 1 - index;
+            System.arraycopy(this.starts, index + 1, this.starts, index, moved);
+            System.arraycopy(this.ends, index + 1, this.ends, index, moved);
+            System.arraycopy(this.values, index + 1, this.values, index, moved);
+            this.count -= 1;
+            this.values[this.count] = null;
+        }
+        return value;
+    }
+
+    /**
+     * Query this array with a JSON Pointer. Only the values along the
+     * pointer's path are parsed.
+     *
+     * @param jsonPointer
+     *            A string that can be used to create a JSONPointer.
+     * @return The value found.
+     * @throws JSONPointerException
+     *             If the pointer cannot be followed.
+     */
+    public Object query(String jsonPointer) {
+        return JSONPointer.cached(jsonPointer).queryFrom(this);
+    }
+
+    /**
+     * Query this array with a JSON Pointer, returning null if the query
+     * fails.
+     *
+     * @param jsonPointer
+     *            The string representation of the JSON pointer.
+     * @return The value found, or null.
+     * @throws IllegalArgumentException
+     *             If jsonPointer has invalid syntax.
+     */
+    public Object optQuery(String jsonPointer) {
+        try {
+            return JSONPointer.cached(jsonPointer).queryFrom(this);
+        } catch (JSONPointerException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Parse all of the array into a JSONArray. Nested objects and arrays
+     * become JSONObjects and JSONArrays.
+     *
+     * @return A new JSONArray.
+     * @throws JSONException
+     *             If there is a syntax error.
+     */
+    public JSONArray toJSONArray() throws JSONException {
+        JSONArray ja = new JSONArray();
+        for (int i = 0; i < this.count; i += 1) {
+            ja.put(LazyJSONObject.toPlain(this.opt(i)));
+        }
+        return ja;
+    }
+
+    /**
+     * Write the array as JSON text to a writer. Elements that have not been
+     * parsed, or have been parsed but not changed, are copied from the
+     * source. For compactness, no whitespace is added between elements.
+     *
+     * @param writer
+     *            Writes the serialized JSON.
+     * @return The writer.
+     * @throws JSONException
+     */
+    public <T extends Appendable> T write(T writer) throws JSONException {
+        try {
+            writer.append('[');
+            for (int i = 0; i < this.count; i += 1) {
+                if (i > 0) {
+                    writer.append(',');
+                }
+                Object value = this.values[i];
+                if (value instanceof LazyJSONObject
+                        || value instanceof LazyJSONArray
+                        || this.starts[i] < 0) {
+                    LazyJSONObject.writeValue(writer, value);
+                } else {
+                    LazyJSONObject.writeSpan(writer, this.chars,
+                            this.starts[i], this.ends[i]);
+                }
+            }
+            writer.append(']');
+            return writer;
+        } catch (IOException exception) {
+            throw new JSONException(exception);
+        }
+    }
+
+    /**
+     * Make a JSON text of this array, as write does.
+     *
+     * @return The JSON text.
+     */
+    @Override
+    public String toJSONString() {
+        return this.toString();
+    }
+
+    /**
+     * Make a JSON text of this array, as write does.
+     *
+     * @return The JSON text, or null if it cannot be made.
+     */
+    @Override
+    public String toString() {
+        try {
+            return this.write(new StringBuilder()).toString();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
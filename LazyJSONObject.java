@@ -0,0 +1,592 @@
+package org.json;
+
+/*
+Copyright (c) 2002 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A LazyJSONObject is a read-mostly view of a JSON object text that parses
+ * its values only when they are asked for. Making one scans the text once
+ * to find each key and the span of characters that holds its value, skipping
+ * over nested objects and arrays without building them. A value is parsed
+ * the first time <code>get</code>, <code>opt</code> or <code>query</code>
+ * reaches it. Nested objects and arrays become LazyJSONObjects and
+ * {@link LazyJSONArray}s, so a query parses only the values along its path.
+ * <p>
+ * <code>write</code> copies the text of each value that has not been
+ * replaced straight from the source, so a document can be passed on without
+ * parsing it. Such values are written as they appear in the source, not in
+ * the form that JSONObject would write them. Errors within a nested value
+ * are found only when that value is parsed.
+ *
+ * @author JSON.org
+ * @version 2016-08-04
+ */
+public class LazyJSONObject implements JSONString {
+
+    /**
+     * The source text.
+     */
+    private final char[] chars;
+
+    /**
+     * The keys, in the order of the text.
+     */
+    private String[] keys;
+
+    /**
+     * The start of the text of each value, or -1 once the value has been
+     * replaced.
+     */
+    private int[] starts;
+
+    /**
+     * The end of the text of each value.
+     */
+    private int[] ends;
+
+    /**
+     * The values parsed or put so far, null for those not yet parsed.
+     */
+    private Object[] values;
+
+    /**
+     * The number of keys.
+     */
+    private int count;
+
+    /**
+     * The positions of the keys, made when first needed for an object with
+     * more than a handful of keys.
+     */
+    private Map<String, Integer> index;
+
+    /**
+     * Construct a LazyJSONObject from a source JSON text.
+     *
+     * @param source
+     *            A string beginning with <code>{</code>&nbsp;<small>(left
+     *            brace)</small> and ending with <code>}</code>
+     *            &nbsp;<small>(right brace)</small>.
+     * @throws JSONException
+     *             If there is a syntax error in the object's own text.
+     */
+    public LazyJSONObject(String source) throws JSONException {
+        this(source.toCharArray(), 0, source.length());
+    }
+
+    /**
+     * Construct a LazyJSONObject on a range of characters.
+     *
+     * @param chars
+     *            The text.
+     * @param start
+     *            The index of the opening brace.
+     * @param limit
+     *            The index after the last character that may be read.
+     * @throws JSONException
+     *             If there is a syntax error in the object's own text.
+     */
+    LazyJSONObject(char[] chars, int start, int limit) throws JSONException {
+        this.chars = chars;
+        this.keys = new String[8];
+        this.starts = new int[8];
+        this.ends = new int[8];
+        JSONTokener x = new JSONTokener(chars, start, limit);
+        char c;
+        if (x.nextClean() != '{') {
+            throw x.syntaxError("A JSONObject text must begin with '{'");
+        }
+        for (;;) {
+            c = x.nextClean();
+            switch (c) {
+            case 0:
+                throw x.syntaxError("A JSONObject text must end with '}'");
+            case '}':
+                return;
+            default:
+                x.back();
+            }
+            String key = x.nextKey();
+            if (x.nextClean() != ':') {
+                throw x.syntaxError("Expected a ':' after a key");
+            }
+            if (this.find(key) >= 0) {
+                throw new JSONException("Duplicate key \"" + key + "\"");
+            }
+            c = x.nextClean();
+            int valueStart = x.offset() - 1;
+            skipValue(x, c);
+            this.add(key, valueStart, x.offset(), null);
+            switch (x.nextClean()) {
+            case ';':
+            case ',':
+                if (x.nextClean() == '}') {
+                    return;
+                }
+                x.back();
+                break;
+            case '}':
+                return;
+            default:
+                throw x.syntaxError("Expected a ',' or '}'");
+            }
+        }
+    }
+
+    /**
+     * Skip the value that begins with a character that has just been read.
+     * Nested objects and arrays are skipped by matching their brackets.
+     *
+     * @param x
+     *            The tokener.
+     * @param c
+     *            The first character of the value.
+     * @throws JSONException
+     *             If the value is missing or not closed.
+     */
+    static void skipValue(JSONTokener x, char c) throws JSONException {
+        switch (c) {
+        case '"':
+        case '\'':
+            x.skipString(c);
+            return;
+        case '{':
+        case '[':
+            int depth = 1;
+            do {
+                c = x.next();
+                switch (c) {
+                case 0:
+                    throw x.syntaxError("Unterminated value");
+                case '"':
+                case '\'':
+                    x.skipString(c);
+                    break;
+                case '{':
+                case '[':
+                    depth += 1;
+                    break;
+                case '}':
+                case ']':
+                    depth -= 1;
+                    break;
+                default:
+                }
+            } while (depth > 0);
+            return;
+        default:
+            x.skipSimpleValue(c);
+        }
+    }
+
+    /**
+     * Parse the value in a span of the text.
+     *
+     * @param chars
+     *            The text.
+     * @param start
+     *            The index of the first character of the value.
+     * @param end
+     *            The index after the last character of the value.
+     * @return A LazyJSONObject, a LazyJSONArray, or a value as
+     *         JSONTokener.nextValue gives it.
+     * @throws JSONException
+     *             If there is a syntax error.
+     */
+    static Object parse(char[] chars, int start, int end) throws JSONException {
+        switch (chars[start]) {
+        case '{':
+            return new LazyJSONObject(chars, start, end);
+        case '[':
+            return new LazyJSONArray(chars, start, end);
+        default:
+            return new JSONTokener(chars, start, end).nextValue();
+        }
+    }
+
+    /**
+     * Write a span of the text, less any trailing spaces of an unquoted
+     * value.
+     */
+    static void writeSpan(Appendable writer, char[] chars, int start, int end)
+            throws IOException {
+        while (end > start && chars[end - 1] == ' ') {
+            end -= 1;
+        }
+        if (writer instanceof JSONSink) {
+            ((JSONSink) writer).append(chars, start, end - start);
+        } else if (writer instanceof StringBuilder) {
+            ((StringBuilder) writer).append(chars, start, end - start);
+        } else {
+            writer.append(new String(chars, start, end - start));
+        }
+    }
+
+    /**
+     * Write a value that was parsed or put.
+     */
+    static void writeValue(Appendable writer, Object value)
+            throws JSONException, IOException {
+        if (value instanceof LazyJSONObject) {
+            ((LazyJSONObject) value).write(writer);
+        } else if (value instanceof LazyJSONArray) {
+            ((LazyJSONArray) value).write(writer);
+        } else {
+            JSONObject.writeValue(writer, value, 0, 0);
+        }
+    }
+
+    /**
+     * Add a key.
+     */
+    private void add(String key, int start, int end, Object value) {
+        if (this.count == this.keys.length) {
+            int capacity = this.count << 1;
+            String[] keys = new String[capacity];
+            int[] starts = new int[capacity];
+            int[] ends = new int[capacity];
+            System.arraycopy(this.keys, 0, keys, 0, this.count);
+            System.arraycopy(this.starts, 0, starts, 0, this.count);
+            System.arraycopy(this.ends, 0, ends, 0, this.count);
+            this.keys = keys;
+            this.starts = starts;
+            this.ends = ends;
+            if (this.values != null) {
+                Object[] values = new Object[capacity];
+                System.arraycopy(this.values, 0, values, 0, this.count);
+                this.values = values;
+            }
+        }
+        if (this.index != null) {
+            this.index.put(key, this.count);
+        }
+        this.keys[this.count] = key;
+        this.starts[this.count] = start;
+        this.ends[this.count] = end;
+        if (value != null) {
+            this.values()[this.count] = value;
+        }
+        this.count += 1;
+    }
+
+    /**
+     * Get the array of values, making it if no value has been parsed yet.
+     */
+    private Object[] values() {
+        if (this.values == null) {
+            this.values = new Object[this.keys.length];
+        }
+        return this.values;
+    }
+
+    /**
+     * Find the position of a key.
+     *
+     * @return The position, or -1 if the key is not present.
+     */
+    private int find(String key) {
+        if (this.count <= CompactMap.THRESHOLD) {
+            for (int i = 0; i < this.count; i += 1) {
+                if (this.keys[i].equals(key)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        if (this.index == null) {
+            this.index = new HashMap<String, Integer>(this.count * 2);
+            for (int i = 0; i < this.count; i += 1) {
+                this.index.put(this.keys[i], i);
+            }
+        }
+        Integer i = this.index.get(key);
+        return i == null ? -1 : i;
+    }
+
+    /**
+     * Get the value at a position, parsing it if this is the first time.
+     */
+    private Object value(int i) throws JSONException {
+        Object[] values = this.values();
+        Object value = values[i];
+        if (value == null) {
+            value = parse(this.chars, this.starts[i], this.ends[i]);
+            values[i] = value;
+        }
+        return value;
+    }
+
+    /**
+     * Get the value associated with a key, parsing it if necessary.
+     *
+     * @param key
+     *            A key string.
+     * @return The value: a LazyJSONObject, LazyJSONArray, Boolean, Number,
+     *         String, or the JSONObject.NULL object.
+     * @throws JSONException
+     *             If the key is not found, or its value has a syntax error.
+     */
+    public Object get(String key) throws JSONException {
+        if (key == null) {
+            throw new JSONException("Null key.");
+        }
+        Object object = this.opt(key);
+        if (object == null) {
+            throw new JSONException("JSONObject[" + JSONObject.quote(key)
+                    + "] not found.");
+        }
+        return object;
+    }
+
+    /**
+     * Get an optional value associated with a key, parsing it if necessary.
+     *
+     * @param key
+     *            A key string.
+     * @return The value, or null if there is none.
+     * @throws JSONException
+     *             If the value has a syntax error.
+     */
+    public Object opt(String key) throws JSONException {
+        int i = key == null ? -1 : this.find(key);
+        return i < 0 ? null : this.value(i);
+    }
+
+    /**
+     * Determine if the object contains a key. The value is not parsed.
+     *
+     * @param key
+     *            A key string.
+     * @return true if the key is present.
+     */
+    public boolean has(String key) {
+        return this.find(key) >= 0;
+    }
+
+    /**
+     * Get the number of keys.
+     *
+     * @return The number of keys.
+     */
+    public int length() {
+        return this.count;
+    }
+
+    /**
+     * Get the keys, in the order of the text.
+     *
+     * @return A new set of the keys.
+     */
+    public Set<String> keySet() {
+        Set<String> set = new LinkedHashSet<String>();
+        for (int i = 0; i < this.count; i += 1) {
+            set.add(this.keys[i]);
+        }
+        return set;
+    }
+
+    /**
+     * Put a key/value pair, replacing any value the key has. A null value
+     * removes the key.
+     *
+     * @param key
+     *            A key string.
+     * @param value
+     *            The value.
+     * @return this.
+     * @throws JSONException
+     *             If the key is null or the value is a non-finite number.
+     */
+    public LazyJSONObject put(String key, Object value) throws JSONException {
+        if (key == null) {
+            throw new NullPointerException("Null key.");
+        }
+        if (value == null) {
+            this.remove(key);
+            return this;
+        }
+        JSONObject.testValidity(value);
+        int i = this.find(key);
+        if (i < 0) {
+            this.add(key, -1, -1, value);
+        } else {
+            this.values()[i] = value;
+            this.starts[i] = -1;
+        }
+        return this;
+    }
+
+    /**
+     * Remove a key and its value, if present.
+     *
+     * @param key
+     *            The key to be removed.
+     * @return The value that was associated with the key, or null.
+     * @throws JSONException
+     *             If the value has a syntax error.
+     */
+    public Object remove(String key) throws JSONException {
+        int i = this.find(key);
+        if (i < 0) {
+            return null;
+        }
+        Object value = this.value(i);
+        int moved = this.count - i - 1;
+        System.arraycopy(this.keys, i + 1, this.keys, i, moved);
+        System.arraycopy(this.starts, i + 1, this.starts, i, moved);
+        System.arraycopy(this.ends, i + 1, this.ends, i, moved);
+        System.arraycopy(this.values, i + 1, this.values, i, moved);
+        this.count -= 1;
+        this.keys[this.count] = null;
+        this.values[this.count] = null;
+        this.index = null;
+        return value;
+    }
+
+    /**
+     * Query this object with a JSON Pointer. Only the values along the
+     * pointer's path are parsed.
+     *
+     * @param jsonPointer
+     *            A string that can be used to create a JSONPointer.
+     * @return The value found.
+     * @throws JSONPointerException
+     *             If the pointer cannot be followed.
+     */
+    public Object query(String jsonPointer) {
+        return JSONPointer.cached(jsonPointer).queryFrom(this);
+    }
+
+    /**
+     * Query this object with a JSON Pointer, returning null if the query
+     * fails.
+     *
+     * @param jsonPointer
+     *            The string representation of the JSON pointer.
+     * @return The value found, or null.
+     * @throws IllegalArgumentException
+     *             If jsonPointer has invalid syntax.
+     */
+    public Object optQuery(String jsonPointer) {
+        try {
+            return JSONPointer.cached(jsonPointer).queryFrom(this);
+        } catch (JSONPointerException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Parse all of the object into a JSONObject. Nested objects and arrays
+     * become JSONObjects and JSONArrays.
+     *
+     * @return A new JSONObject.
+     * @throws JSONException
+     *             If there is a syntax error.
+     */
+    public JSONObject toJSONObject() throws JSONException {
+        JSONObject jo = new JSONObject();
+        for (int i = 0; i < this.count; i += 1) {
+            jo.put(this.keys[i], toPlain(this.value(i)));
+        }
+        return jo;
+    }
+
+    /**
+     * Convert a lazy value to a JSONObject or JSONArray.
+     */
+    static Object toPlain(Object value) throws JSONException {
+        if (value instanceof LazyJSONObject) {
+            return ((LazyJSONObject) value).toJSONObject();
+        }
+        if (value instanceof LazyJSONArray) {
+            return ((LazyJSONArray) value).toJSONArray();
+        }
+        return value;
+    }
+
+    /**
+     * Write the object as JSON text to a writer. Values that have not been
+     * parsed, or have been parsed but not changed, are copied from the
+     * source. For compactness, no whitespace is added between members.
+     *
+     * @param writer
+     *            Writes the serialized JSON.
+     * @return The writer.
+     * @throws JSONException
+     */
+    public <T extends Appendable> T write(T writer) throws JSONException {
+        try {
+            writer.append('{');
+            for (int i = 0; i < this.count; i += 1) {
+                if (i > 0) {
+                    writer.append(',');
+                }
+                JSONObject.quote(this.keys[i], writer);
+                writer.append(':');
+                Object value = this.values == null ? null : this.values[i];
+                if (value instanceof LazyJSONObject
+                        || value instanceof LazyJSONArray
+                        || this.starts[i] < 0) {
+                    writeValue(writer, value);
+                } else {
+                    writeSpan(writer, this.chars, this.starts[i], this.ends[i]);
+                }
+            }
+            writer.append('}');
+            return writer;
+        } catch (IOException exception) {
+            throw new JSONException(exception);
+        }
+    }
+
+    /**
+     * Make a JSON text of this object, as write does.
+     *
+     * @return The JSON text.
+     */
+    @Override
+    public String toJSONString() {
+        return this.toString();
+    }
+
+    /**
+     * Make a JSON text of this object, as write does.
+     *
+     * @return The JSON text, or null if it cannot be made.
+     */
+    @Override
+    public String toString() {
+        try {
+            return this.write(new StringBuilder()).toString();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
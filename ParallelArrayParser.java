@@ -0,0 +1,237 @@
+package org.json;
+
+/*
+Copyright (c) 2002 JSON.org
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+The Software shall be used for Good, not Evil.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Parses a large JSON array text in parts on an ExecutorService. A quick
+ * scan of the text finds commas between elements of the outermost array,
+ * skipping strings and nested objects and arrays. The text is cut at some
+ * of those commas into ranges of about the same length. Each range is
+ * parsed in place by its own JSONTokener, and the elements are put together
+ * in order.
+ * <p>
+ * The result is the same as that of the JSONArray constructor. If any range
+ * fails to parse, the whole text is parsed again in one piece, so that the
+ * error reported is the one the constructor would report.
+ *
+ * @author JSON.org
+ * @version 2016-08-04
+ */
+final class ParallelArrayParser {
+
+    /**
+     * The shortest range worth parsing as a separate task.
+     */
+    static final int MIN_PART = 1 << 16;
+
+    private ParallelArrayParser() {
+    }
+
+    /**
+     * Parse the elements of a range of the array text.
+     *
+     * @param x
+     *            A tokener over the range.
+     * @param list
+     *            Receives the elements.
+     * @param last
+     *            true if the range ends with the closing bracket.
+     * @throws JSONException
+     *             If there is a syntax error.
+     */
+    private static void parseElements(JSONTokener x, List<Object> list,
+            boolean last) throws JSONException {
+        for (;;) {
+            if (x.nextClean() == ',') {
+                x.back();
+                list.add(JSONObject.NULL);
+            } else {
+                x.back();
+                list.add(x.nextValue());
+            }
+            switch (x.nextClean()) {
+            case ',':
+                if (x.nextClean() == ']' && last) {
+                    return;
+                }
+                x.back();
+                break;
+            case ']':
+                if (last) {
+                    return;
+                }
+                throw x.syntaxError("Expected a ',' or ']'");
+            case 0:
+                if (!last) {
+                    return;
+                }
+                throw x.syntaxError("Expected a ',' or ']'");
+            default:
+                throw x.syntaxError("Expected a ',' or ']'");
+            }
+        }
+    }
+
+    /**
+     * Find where to cut the text. A cut is made at a comma of the outermost
+     * array once a part is at least as long as the given length, but not at
+     * a comma that follows another comma or the opening bracket, since an
+     * elided element needs the comma before it.
+     *
+     * @param chars
+     *            The text.
+     * @param partLength
+     *            The length wanted for each part.
+     * @return The index of the opening bracket, the indexes of the commas to
+     *         cut at, and the index of the closing bracket; or null if the
+     *         text does not have the form of an array.
+     */
+    private static List<Integer> findCuts(char[] chars, int partLength) {
+        List<Integer> cuts = new ArrayList<Integer>();
+        int depth = 0;
+        char previous = 0;
+        int next = 0;
+        for (int i = 0; i < chars.length; i += 1) {
+            char c = chars[i];
+            if (c == 0) {
+                return null;
+            }
+            if (c <= ' ') {
+                continue;
+            }
+            if (depth == 0) {
+                if (c != '[') {
+                    return null;
+                }
+                cuts.add(i);
+                next = i + partLength;
+                depth = 1;
+            } else if ((c == '"' || c == '\'') && (previous == '['
+                    || previous == '{' || previous == ',' || previous == ':'
+                    || previous == ';')) {
+
+// A string starts only where a value or key does; elsewhere a quote is part
+// of an unquoted string. Skip to the closing quote.
+
+                for (i += 1; i < chars.length && chars[i] != c; i += 1) {
+                    if (chars[i] == '\\') {
+                        i += 1;
+                    } else if (chars[i] == 0) {
+                        return null;
+                    }
+                }
+                if (i >= chars.length) {
+                    return null;
+                }
+            } else if (c == '[' || c == '{') {
+                depth += 1;
+            } else if (c == ']' || c == '}') {
+                depth -= 1;
+                if (depth == 0) {
+                    if (c != ']') {
+                        return null;
+                    }
+                    cuts.add(i);
+                    return cuts;
+                }
+            } else if (c == ',' && depth == 1 && i >= next
+                    && previous != ',' && previous != '[') {
+                cuts.add(i);
+                next = i + partLength;
+            }
+            previous = c;
+        }
+        return null;
+    }
+
+    /**
+     * Parse an array text.
+     *
+     * @param source
+     *            A string that begins with <code>[</code> and ends with
+     *            <code>]</code>.
+     * @param executor
+     *            Runs the parts.
+     * @param parts
+     *            The number of parts wanted.
+     * @return A new JSONArray.
+     * @throws JSONException
+     *             If there is a syntax error, or the parse is interrupted.
+     */
+    static JSONArray parse(String source, ExecutorService executor, int parts)
+            throws JSONException {
+        final char[] chars = source.toCharArray();
+        List<Integer> cuts = findCuts(chars,
+                Math.max(MIN_PART, chars.length / Math.max(parts, 1)));
+        if (cuts == null || cuts.size() < 3) {
+            return new JSONArray(source);
+        }
+        List<Future<List<Object>>> futures = new ArrayList<Future<List<Object>>>();
+        for (int i = 1; i < cuts.size(); i += 1) {
+            final int start = cuts.get(i - 1) + 1;
+            final int end = cuts.get(i);
+            final boolean last = i == cuts.size() - 1;
+            futures.add(executor.submit(new Callable<List<Object>>() {
+                @Override
+                public List<Object> call() throws JSONException {
+                    List<Object> list = new ArrayList<Object>();
+                    parseElements(new JSONTokener(chars, start,
+                            last ? end + 1 : end), list, last);
+                    return list;
+                }
+            }));
+        }
+        JSONArray ja = new JSONArray();
+        try {
+            for (Future<List<Object>> future : futures) {
+                for (Object value : future.get()) {
+                    ja.put(value);
+                }
+            }
+        } catch (InterruptedException exception) {
+            for (Future<List<Object>> future : futures) {
+                future.cancel(true);
+            }
+            Thread.currentThread().interrupt();
+            throw new JSONException(exception);
+        } catch (ExecutionException exception) {
+            for (Future<List<Object>> future : futures) {
+                future.cancel(true);
+            }
+            if (exception.getCause() instanceof JSONException) {
+                return new JSONArray(source);
+            }
+            throw new JSONException(exception.getCause());
+        }
+        return ja;
+    }
+}
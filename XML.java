@@ -24,6 +24,7 @@ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
 SOFTWARE.
 */
 
+import java.io.IOException;
 import java.util.Iterator;
 
 /**
@@ -79,27 +80,10 @@ public class XML {
      */
     public static String escape(String string) {
         StringBuilder sb = new StringBuilder(string.length());
-        for (int i = 0, length = string.length(); i < length; i++) {
-            char c = string.charAt(i);
-            switch (c) {
-            case '&':
-                sb.append("&amp;");
-                break;
-            case '<':
-                sb.append("&lt;");
-                break;
-            case '>':
-                sb.append("&gt;");
-                break;
-            case '"':
-                sb.append("&quot;");
-                break;
-            case '\'':
-                sb.append("&apos;");
-                break;
-            default:
-                sb.append(c);
-            }
+        try {
+            escape(string, sb);
+        } catch (IOException ignored) {
+            // will never happen - we are writing to a string builder
         }
         return sb.toString();
     }
@@ -357,21 +341,107 @@ public class XML {
      */
     public static String toString(Object object, String tagName)
             throws JSONException {
-        StringBuilder sb = new StringBuilder();
+        JSONCharSink sink = JSONCharSink.acquire();
+        try {
+            return write(object, tagName, sink).toString();
+        } finally {
+            JSONCharSink.release(sink);
+        }
+    }
+
+    /**
+     * Write a JSONObject as a well-formed, element-normal XML text to a
+     * writer, without building intermediate strings.
+     * 
+     * @param object
+     *            A JSONObject.
+     * @param tagName
+     *            The optional name of the enclosing tag.
+     * @param writer
+     *            Receives the XML text.
+     * @return The writer.
+     * @throws JSONException
+     */
+    public static <T extends Appendable> T write(Object object, String tagName,
+            T writer) throws JSONException {
+        try {
+            writeElement(object, tagName, writer);
+            return writer;
+        } catch (IOException exception) {
+            throw new JSONException(exception);
+        }
+    }
+
+    /**
+     * Replace special characters with XML escapes, writing the result to a
+     * writer.
+     * 
+     * @param string
+     *            The string to be escaped.
+     * @param w
+     *            Receives the escaped string.
+     * @throws IOException
+     */
+    private static void escape(String string, Appendable w) throws IOException {
+        int prev = 0;
+        for (int i = 0, length = string.length(); i < length; i++) {
+            String escape;
+            switch (string.charAt(i)) {
+            case '&':
+                escape = "&amp;";
+                break;
+            case '<':
+                escape = "&lt;";
+                break;
+            case '>':
+                escape = "&gt;";
+                break;
+            case '"':
+                escape = "&quot;";
+                break;
+            case '\'':
+                escape = "&apos;";
+                break;
+            default:
+                continue;
+            }
+            if (prev < i) {
+                w.append(string, prev, i);
+            }
+            w.append(escape);
+            prev = i + 1;
+        }
+        if (prev < string.length()) {
+            w.append(string, prev, string.length());
+        }
+    }
+
+    /**
+     * Write an object as XML.
+     * 
+     * @param object
+     *            A JSONObject, JSONArray, array, or other value.
+     * @param tagName
+     *            The optional name of the enclosing tag.
+     * @param w
+     *            Receives the XML text.
+     * @throws IOException
+     */
+    private static void writeElement(Object object, String tagName,
+            Appendable w) throws JSONException, IOException {
         JSONArray ja;
         JSONObject jo;
         String key;
         Iterator<String> keys;
-        String string;
         Object value;
 
         if (object instanceof JSONObject) {
 
             // Emit <tagName>
             if (tagName != null) {
-                sb.append('<');
-                sb.append(tagName);
-                sb.append('>');
+                w.append('<');
+                w.append(tagName);
+                w.append('>');
             }
 
             // Loop thru the keys.
@@ -385,7 +455,6 @@ public class XML {
                 } else if (value.getClass().isArray()) {
                     value = new JSONArray(value);
                 }
-                string = value instanceof String ? (String) value : null;
 
                 // Emit content in body
                 if ("content".equals(key)) {
@@ -394,13 +463,13 @@ public class XML {
                         int i = 0;
                         for (Object val : ja) {
                             if (i > 0) {
-                                sb.append('\n');
+                                w.append('\n');
                             }
-                            sb.append(escape(val.toString()));
+                            escape(val.toString(), w);
                             i++;
                         }
                     } else {
-                        sb.append(escape(value.toString()));
+                        escape(value.toString(), w);
                     }
 
                     // Emit an array of similar keys
@@ -409,36 +478,36 @@ public class XML {
                     ja = (JSONArray) value;
                     for (Object val : ja) {
                         if (val instanceof JSONArray) {
-                            sb.append('<');
-                            sb.append(key);
-                            sb.append('>');
-                            sb.append(toString(val));
-                            sb.append("</");
-                            sb.append(key);
-                            sb.append('>');
+                            w.append('<');
+                            w.append(key);
+                            w.append('>');
+                            writeElement(val, null, w);
+                            w.append("</");
+                            w.append(key);
+                            w.append('>');
                         } else {
-                            sb.append(toString(val, key));
+                            writeElement(val, key, w);
                         }
                     }
                 } else if ("".equals(value)) {
-                    sb.append('<');
-                    sb.append(key);
-                    sb.append("/>");
+                    w.append('<');
+                    w.append(key);
+                    w.append("/>");
 
                     // Emit a new tag <k>
 
                 } else {
-                    sb.append(toString(value, key));
+                    writeElement(value, key, w);
                 }
             }
             if (tagName != null) {
 
                 // Emit the </tagname> close tag
-                sb.append("</");
-                sb.append(tagName);
-                sb.append('>');
+                w.append("</");
+                w.append(tagName);
+                w.append('>');
             }
-            return sb.toString();
+            return;
 
         }
 
@@ -453,16 +522,29 @@ public class XML {
                     // XML does not have good support for arrays. If an array
                     // appears in a place where XML is lacking, synthesize an
                     // <array> element.
-                    sb.append(toString(val, tagName == null ? "array" : tagName));
+                    writeElement(val, tagName == null ? "array" : tagName, w);
                 }
-                return sb.toString();
+                return;
             }
         }
 
-        string = (object == null) ? "null" : escape(object.toString());
-        return (tagName == null) ? "\"" + string + "\""
-                : (string.length() == 0) ? "<" + tagName + "/>" : "<" + tagName
-                        + ">" + string + "</" + tagName + ">";
-
+        String string = (object == null) ? "null" : object.toString();
+        if (tagName == null) {
+            w.append('"');
+            escape(string, w);
+            w.append('"');
+        } else if (string.length() == 0) {
+            w.append('<');
+            w.append(tagName);
+            w.append("/>");
+        } else {
+            w.append('<');
+            w.append(tagName);
+            w.append('>');
+            escape(string, w);
+            w.append("</");
+            w.append(tagName);
+            w.append('>');
+        }
     }
 }